@@ -0,0 +1,29 @@
+#!/bin/bash
+# Starts cloudmart-backend, using the class-data-sharing archive from `mvn -Pcds package` when present.
+#   JAVA_OPTS    extra JVM options
+#   SPRING_AOT   true when built with -Pcds,aot
+# Arguments are passed to the application, e.g. ./run.sh --spring.profiles.active=prod,fast-start
+set -e
+
+cd "$(dirname "$0")"
+
+CDS_DIR="target/cds"
+ARCHIVE="$CDS_DIR/application.jsa"
+JVM_OPTS=()
+
+if [ -f "$ARCHIVE" ]; then
+    JAR=$(ls "$CDS_DIR"/cloudmart-backend-*.jar | head -n 1)
+    # -Xshare:auto falls back to normal class loading if the archive doesn't match this JVM
+    JVM_OPTS+=("-XX:SharedArchiveFile=$ARCHIVE" "-Xshare:auto")
+    echo "Using CDS archive $ARCHIVE"
+else
+    JAR=$(ls target/cloudmart-backend-*.jar | grep -v '\.original$' | head -n 1)
+    echo "No CDS archive found, build it with: ./mvnw -Pcds package"
+fi
+
+if [ "${SPRING_AOT:-false}" = "true" ]; then
+    JVM_OPTS+=("-Dspring.aot.enabled=true")
+fi
+
+# shellcheck disable=SC2086
+exec java "${JVM_OPTS[@]}" $JAVA_OPTS -jar "$JAR" "$@"
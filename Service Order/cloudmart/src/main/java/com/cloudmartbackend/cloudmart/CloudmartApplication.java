@@ -2,12 +2,18 @@ package com.cloudmartbackend.cloudmart;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class CloudmartApplication {
 
+	// Startup steps kept for the timeline (ApplicationStartupListener, /actuator/startup)
+	private static final int STARTUP_STEP_CAPACITY = 8192;
+
 	public static void main(String[] args) {
-		SpringApplication.run(CloudmartApplication.class, args);
+		SpringApplication application = new SpringApplication(CloudmartApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,72 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection factory under a Hikari pool that reacts to MySQL's access-denied error (1045)
+ * by running a credentials refresh right away instead of waiting for the next secret poll.
+ * Hikari retries the failed connection with whatever credentials the pool has by then.
+ * Refreshes are at most one per min-interval, so a burst of failures is one Secrets Manager call.
+ */
+@Slf4j
+public class AccessDeniedRefreshingDataSource extends DelegatingDataSource {
+
+    static final int MYSQL_ACCESS_DENIED = 1045;
+
+    private final Runnable refresh;
+    private final long minIntervalNanos;
+    private final AtomicLong lastRefreshNanos;
+
+    public AccessDeniedRefreshingDataSource(DataSource target, Runnable refresh, long minIntervalMillis) {
+        super(target);
+        this.refresh = refresh;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.lastRefreshNanos = new AtomicLong(System.nanoTime() - minIntervalNanos);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        try {
+            return super.getConnection(username, password);
+        } catch (SQLException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    private void onFailure(SQLException e) {
+        if (e.getErrorCode() != MYSQL_ACCESS_DENIED) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long last = lastRefreshNanos.get();
+        if (now - last < minIntervalNanos || !lastRefreshNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        log.warn("Database rejected the pool's credentials, refreshing them now: {}", e.getMessage());
+        try {
+            refresh.run();
+        } catch (RuntimeException refreshFailure) {
+            log.warn("Credentials refresh after access denied failed: {}", refreshFailure.getMessage());
+        }
+    }
+}
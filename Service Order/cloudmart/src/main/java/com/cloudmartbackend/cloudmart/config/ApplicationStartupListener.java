@@ -1,31 +1,129 @@
 package com.cloudmartbackend.cloudmart.config;
 
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.ApplicationListener;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs the startup summary, the slowest bean instantiations from the buffered startup timeline
+ * (full timeline at /actuator/startup) and the time from JVM start to the first served request.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class ApplicationStartupListener implements ApplicationListener<ApplicationReadyEvent> {
+public class ApplicationStartupListener {
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+    private static final int SLOWEST_BEANS_LOGGED = 10;
 
     private final Environment environment;
+    private final MeterRegistry meterRegistry;
 
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private volatile long readyMillis = -1;
+    private volatile long firstRequestMillis = -1;
+    private volatile List<BeanTiming> slowestBeans = List.of();
 
-    @Override
-    public void onApplicationEvent(ApplicationReadyEvent event) {
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
         String port = environment.getProperty("server.port");
         String profile = environment.getProperty("spring.profiles.active");
 
+        readyMillis = sinceJvmStart(System.currentTimeMillis());
+        Gauge.builder("cloudmart.startup.first-request.time", this, listener -> listener.firstRequestMillis)
+                .description("Time from JVM start to the first served request, -1 until then")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
         log.info("=".repeat(60));
         log.info("CloudMart Backend Application Started Successfully!");
         log.info("Profile: {}", profile);
         log.info("Port: {}", port);
+        log.info("Ready {} ms after JVM start", readyMillis);
         log.info("API Documentation: http://localhost:{}/swagger-ui.html", port);
         log.info("=".repeat(60));
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup buffering) {
+            slowestBeans = slowestBeans(buffering.getBufferedTimeline());
+            for (BeanTiming timing : slowestBeans) {
+                // Includes the beans it depends on that were created for it
+                log.info("Startup bean {}: {} ms", timing.beanName, timing.duration.toMillis());
+            }
+        }
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestSeen.get() || !firstRequestSeen.compareAndSet(false, true)) {
+            return;
+        }
+
+        firstRequestMillis = sinceJvmStart(event.getTimestamp());
+        log.info("Time to first request: {} ms after JVM start ({} ms after ready, {} {} took {} ms)",
+                firstRequestMillis, firstRequestMillis - readyMillis,
+                event.getMethod(), event.getRequestUrl(), event.getProcessingTimeMillis());
+    }
+
+    public long getReadyMillis() {
+        return readyMillis;
+    }
+
+    public long getFirstRequestMillis() {
+        return firstRequestMillis;
+    }
+
+    public List<BeanTiming> getSlowestBeans() {
+        return slowestBeans;
+    }
+
+    private static List<BeanTiming> slowestBeans(StartupTimeline timeline) {
+        List<BeanTiming> timings = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (!BEAN_INSTANTIATION_STEP.equals(event.getStartupStep().getName())) {
+                continue;
+            }
+            for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+                if ("beanName".equals(tag.getKey())) {
+                    timings.add(new BeanTiming(tag.getValue(), event.getDuration()));
+                }
+            }
+        }
+
+        return timings.stream()
+                .sorted(Comparator.comparing((BeanTiming timing) -> timing.duration).reversed())
+                .limit(SLOWEST_BEANS_LOGGED)
+                .toList();
+    }
+
+    private static long sinceJvmStart(long epochMillis) {
+        return epochMillis - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BeanTiming {
+        private final String beanName;
+        private final Duration duration;
     }
-}
\ No newline at end of file
+}
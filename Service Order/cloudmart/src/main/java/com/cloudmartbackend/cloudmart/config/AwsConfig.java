@@ -1,78 +1,256 @@
 package com.cloudmartbackend.cloudmart.config;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.InstanceProfileCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.ssm.SsmAsyncClient;
 import software.amazon.awssdk.services.ssm.SsmClient;
 
+import java.time.Duration;
+
+/**
+ * All AWS clients share one credentials provider, one sync HTTP client (Apache) and one
+ * async HTTP client (Netty), so there is a single connection pool per kind instead of one per service.
+ * Clients don't close HTTP clients they were given; the shared ones are closed with their beans.
+ */
 @Configuration
 public class AwsConfig {
 
     @Value("${aws.region}")
     private String region;
 
+    @Value("${aws.http.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${aws.http.connection-timeout-ms:2000}")
+    private long connectionTimeoutMs;
+
+    @Value("${aws.http.socket-timeout-ms:30000}")
+    private long socketTimeoutMs;
+
+    @Value("${aws.http.connection-acquisition-timeout-ms:5000}")
+    private long connectionAcquisitionTimeoutMs;
+
+    @Value("${aws.http.connection-max-idle-ms:60000}")
+    private long connectionMaxIdleMs;
+
+    // Recycle pooled connections so they follow DNS changes of the service endpoints
+    @Value("${aws.http.connection-ttl-ms:300000}")
+    private long connectionTtlMs;
+
+    @Value("${aws.http.tcp-keep-alive:true}")
+    private boolean tcpKeepAlive;
+
+    @Bean(destroyMethod = "close")
+    public AwsCredentialsProvider awsCredentialsProvider() {
+        // Refreshes credentials ahead of expiry in the background instead of on a request thread
+        return InstanceProfileCredentialsProvider.builder()
+                .asyncCredentialUpdateEnabled(true)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public SdkHttpClient awsHttpClient() {
+        return ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                .socketTimeout(Duration.ofMillis(socketTimeoutMs))
+                .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs))
+                .connectionMaxIdleTime(Duration.ofMillis(connectionMaxIdleMs))
+                .connectionTimeToLive(Duration.ofMillis(connectionTtlMs))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(tcpKeepAlive)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public SdkAsyncHttpClient awsAsyncHttpClient() {
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                .readTimeout(Duration.ofMillis(socketTimeoutMs))
+                .writeTimeout(Duration.ofMillis(socketTimeoutMs))
+                .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs))
+                .connectionMaxIdleTime(Duration.ofMillis(connectionMaxIdleMs))
+                .connectionTimeToLive(Duration.ofMillis(connectionTtlMs))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(tcpKeepAlive)
+                .build();
+    }
+
+    // Latency per service and operation for every client below
     @Bean
-    public S3Client s3Client() {
+    public ClientOverrideConfiguration awsClientOverrideConfiguration(MeterRegistry meterRegistry) {
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(new AwsSdkMetricsInterceptor(meterRegistry))
+                .build();
+    }
+
+    @Bean
+    public S3Client s3Client(SdkHttpClient awsHttpClient, AwsCredentialsProvider awsCredentialsProvider,
+                             ClientOverrideConfiguration awsClientOverrideConfiguration) {
         return S3Client.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
                 .build();
     }
 
     @Bean
-    public S3Presigner s3Presigner() {
+    public S3Presigner s3Presigner(AwsCredentialsProvider awsCredentialsProvider) {
         return S3Presigner.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
                 .build();
     }
 
     @Bean
-    public DynamoDbClient dynamoDbClient() {
+    public DynamoDbClient dynamoDbClient(SdkHttpClient awsHttpClient, AwsCredentialsProvider awsCredentialsProvider,
+                                         ClientOverrideConfiguration awsClientOverrideConfiguration) {
         return DynamoDbClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
                 .build();
     }
 
     @Bean
-    public SqsClient sqsClient() {
+    public SqsClient sqsClient(SdkHttpClient awsHttpClient, AwsCredentialsProvider awsCredentialsProvider,
+                               ClientOverrideConfiguration awsClientOverrideConfiguration) {
         return SqsClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
                 .build();
     }
 
     @Bean
-    public SnsClient snsClient() {
+    public SnsClient snsClient(SdkHttpClient awsHttpClient, AwsCredentialsProvider awsCredentialsProvider,
+                               ClientOverrideConfiguration awsClientOverrideConfiguration) {
         return SnsClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
                 .build();
     }
 
     @Bean
-    public SecretsManagerClient secretsManagerClient() {
+    public SecretsManagerClient secretsManagerClient(SdkHttpClient awsHttpClient,
+                                                     AwsCredentialsProvider awsCredentialsProvider,
+                                                     ClientOverrideConfiguration awsClientOverrideConfiguration) {
         return SecretsManagerClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
                 .build();
     }
 
     @Bean
-    public SsmClient ssmClient() {
+    public SsmClient ssmClient(SdkHttpClient awsHttpClient, AwsCredentialsProvider awsCredentialsProvider,
+                               ClientOverrideConfiguration awsClientOverrideConfiguration) {
         return SsmClient.builder()
                 .region(Region.of(region))
-                .credentialsProvider(InstanceProfileCredentialsProvider.create())
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
+                .build();
+    }
+
+    @Bean
+    public S3AsyncClient s3AsyncClient(SdkAsyncHttpClient awsAsyncHttpClient,
+                                       AwsCredentialsProvider awsCredentialsProvider,
+                                       ClientOverrideConfiguration awsClientOverrideConfiguration) {
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsAsyncHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
+                .build();
+    }
+
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient,
+                                                   AwsCredentialsProvider awsCredentialsProvider,
+                                                   ClientOverrideConfiguration awsClientOverrideConfiguration) {
+        return DynamoDbAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsAsyncHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
+                .build();
+    }
+
+    @Bean
+    public SqsAsyncClient sqsAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient,
+                                         AwsCredentialsProvider awsCredentialsProvider,
+                                         ClientOverrideConfiguration awsClientOverrideConfiguration) {
+        return SqsAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsAsyncHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
+                .build();
+    }
+
+    @Bean
+    public SnsAsyncClient snsAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient,
+                                         AwsCredentialsProvider awsCredentialsProvider,
+                                         ClientOverrideConfiguration awsClientOverrideConfiguration) {
+        return SnsAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsAsyncHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
+                .build();
+    }
+
+    @Bean
+    public SecretsManagerAsyncClient secretsManagerAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient,
+                                                               AwsCredentialsProvider awsCredentialsProvider,
+                                                               ClientOverrideConfiguration awsClientOverrideConfiguration) {
+        return SecretsManagerAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsAsyncHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
+                .build();
+    }
+
+    @Bean
+    public SsmAsyncClient ssmAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient,
+                                         AwsCredentialsProvider awsCredentialsProvider,
+                                         ClientOverrideConfiguration awsClientOverrideConfiguration) {
+        return SsmAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(awsCredentialsProvider)
+                .httpClient(awsAsyncHttpClient)
+                .overrideConfiguration(awsClientOverrideConfiguration)
                 .build();
     }
 }
@@ -0,0 +1,55 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every AWS SDK call per service and operation (e.g. S3 PutObject, SQS ReceiveMessage),
+ * including the SDK's own retries, as cloudmart.aws.client.requests.
+ */
+@RequiredArgsConstructor
+public class AwsSdkMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> STARTED_AT = new ExecutionAttribute<>("CloudmartMetricsStartedAt");
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        int status = context.httpResponse().statusCode();
+        record(executionAttributes, status >= 500 ? "SERVER_ERROR" : status >= 400 ? "CLIENT_ERROR" : "SUCCESS");
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        // Error responses (throttling, not found, ...) as well as timeouts and connection failures
+        record(executionAttributes, context.exception().getClass().getSimpleName());
+    }
+
+    private void record(ExecutionAttributes executionAttributes, String outcome) {
+        Long startedAt = executionAttributes.getAttribute(STARTED_AT);
+        if (startedAt == null) {
+            return;
+        }
+
+        Timer.builder("cloudmart.aws.client.requests")
+                .tag("service", String.valueOf(executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME)))
+                .tag("operation", String.valueOf(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME)))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,97 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import com.cloudmartbackend.cloudmart.service.SecretRotatedEvent;
+import com.cloudmartbackend.cloudmart.service.SecretsManagerService;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Database credentials from Secrets Manager instead of application.yaml.
+ *
+ * The pool gets the secret's credentials before it opens its first connection. After a rotation
+ * the new credentials are set on the running pool: only connections opened from then on use them,
+ * existing ones stay authenticated and are replaced gradually as they reach max-lifetime, so
+ * there is no reconnect storm and no restart.
+ *
+ * With single-user rotation the old password stops working as soon as the secret changes, so the
+ * primary pool also refreshes the secret the moment MySQL answers a new connection with access
+ * denied (see {@link AccessDeniedRefreshingDataSource}) rather than failing until the next poll.
+ * Replica pools sharing these credentials are updated by the same refresh.
+ */
+@Configuration
+@ConditionalOnProperty(name = "aws.secrets.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class DataSourceCredentialsConfig {
+
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSources;
+    private final ReplicaDataSourceProperties replicaProperties;
+    private final SecretsManagerService secretsManagerService;
+
+    @Bean
+    static BeanPostProcessor secretsDataSourceCredentials(
+            ObjectProvider<SecretsManagerService> secretsManagerService,
+            @Value("${aws.secrets.access-denied-refresh-interval-ms:5000}") long accessDeniedRefreshIntervalMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    Map<String, String> credentials = secretsManagerService.getObject().getDatabaseCredentials();
+                    dataSource.setUsername(credentials.get("username"));
+                    dataSource.setPassword(credentials.get("password"));
+
+                    // Same driver connections Hikari would open from jdbcUrl, plus the access-denied hook
+                    DriverDataSource driver = new DriverDataSource(dataSource.getJdbcUrl(),
+                            dataSource.getDriverClassName(), dataSource.getDataSourceProperties(),
+                            dataSource.getUsername(), dataSource.getPassword());
+                    dataSource.setDataSource(new AccessDeniedRefreshingDataSource(driver, () -> {
+                        SecretsManagerService secrets = secretsManagerService.getObject();
+                        secrets.refreshSecret(secrets.getDatabaseSecretName());
+                    }, accessDeniedRefreshIntervalMs));
+
+                    log.info("Using Secrets Manager credentials for data source {}", beanName);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener
+    public void onSecretRotated(SecretRotatedEvent event) {
+        if (!event.getSecretName().equals(secretsManagerService.getDatabaseSecretName())) {
+            return;
+        }
+
+        Map<String, String> credentials = secretsManagerService.getDatabaseCredentials();
+
+        List<HikariDataSource> pools = new ArrayList<>(dataSources.orderedStream().toList());
+        // Replica pools aren't beans; they share the primary's credentials unless configured separately
+        if (!StringUtils.hasText(replicaProperties.getUsername())) {
+            routingDataSources.orderedStream().forEach(routing -> pools.addAll(routing.getReplicaPools()));
+        }
+
+        for (HikariDataSource dataSource : pools) {
+            HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+            config.setUsername(credentials.get("username"));
+            config.setPassword(credentials.get("password"));
+            log.info("Rotated credentials applied to pool {} (version {})",
+                    dataSource.getPoolName(), event.getVersionId());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+
+/**
+ * fast-start profile: beans are created lazily so the instance starts serving sooner.
+ *
+ * The data source and entity manager factory stay eager, otherwise the first request would pay
+ * for Hibernate bootstrap. Right after startup the remaining beans (AWS clients, springdoc,
+ * scheduled jobs) are created on a background thread, and the mapped schema is validated there
+ * instead of being diffed by ddl-auto before the port opens.
+ */
+@Configuration
+@Profile("fast-start")
+@Slf4j
+public class FastStartConfig {
+
+    @Value("${app.startup.warm-up:true}")
+    private boolean warmUp;
+
+    @Value("${app.startup.validate-schema:true}")
+    private boolean validateSchema;
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerPersistenceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+        ObjectProvider<EntityManagerFactory> entityManagerFactory = beanFactory.getBeanProvider(EntityManagerFactory.class);
+
+        Thread thread = new Thread(() -> {
+            if (warmUp) {
+                warmUp(beanFactory);
+            }
+            if (validateSchema) {
+                validateSchema(entityManagerFactory);
+            }
+        }, "startup-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp(ConfigurableListableBeanFactory beanFactory) {
+        long started = System.nanoTime();
+        int created = 0;
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (!definition.isSingleton() || definition.isAbstract() || beanFactory.containsSingleton(beanName)) {
+                continue;
+            }
+
+            try {
+                beanFactory.getBean(beanName);
+                created++;
+            } catch (Exception e) {
+                // Same failure will surface on first use
+                log.warn("Warm-up could not create bean {}: {}", beanName, e.getMessage());
+            }
+        }
+
+        log.info("Warm-up created {} lazy beans in {} ms", created, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void validateSchema(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        long started = System.nanoTime();
+        try {
+            entityManagerFactory.getObject()
+                    .unwrap(SessionFactory.class)
+                    .getSchemaManager()
+                    .validateMappedObjects();
+            log.info("Schema validated in {} ms", (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Schema validation failed, entity mappings don't match the database: {}", e.getMessage());
+        }
+    }
+}
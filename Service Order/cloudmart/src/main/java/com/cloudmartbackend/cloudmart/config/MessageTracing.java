@@ -0,0 +1,96 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Carries trace context in SQS and SNS message attributes (traceparent, tracestate),
+ * so the consumer continues the trace of the request that created the order.
+ */
+@Component
+public class MessageTracing {
+
+    private static final TextMapSetter<Map<String, MessageAttributeValue>> SQS_SETTER =
+            (carrier, key, value) -> carrier.put(key, MessageAttributeValue.builder()
+                    .dataType("String")
+                    .stringValue(value)
+                    .build());
+
+    private static final TextMapSetter<Map<String, software.amazon.awssdk.services.sns.model.MessageAttributeValue>> SNS_SETTER =
+            (carrier, key, value) -> carrier.put(key, software.amazon.awssdk.services.sns.model.MessageAttributeValue.builder()
+                    .dataType("String")
+                    .stringValue(value)
+                    .build());
+
+    private static final TextMapGetter<Map<String, MessageAttributeValue>> SQS_GETTER =
+            new TextMapGetter<>() {
+                @Override
+                public Iterable<String> keys(Map<String, MessageAttributeValue> carrier) {
+                    return carrier.keySet();
+                }
+
+                @Override
+                public String get(Map<String, MessageAttributeValue> carrier, String key) {
+                    if (carrier == null || carrier.get(key) == null) {
+                        return null;
+                    }
+                    return carrier.get(key).stringValue();
+                }
+            };
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    public MessageTracing(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(TracingConfig.INSTRUMENTATION_SCOPE);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Attribute names to request when receiving, so the trace context comes back with the message.
+     */
+    public Collection<String> fields() {
+        return propagator.fields();
+    }
+
+    public Map<String, MessageAttributeValue> sqsAttributes(Context context) {
+        Map<String, MessageAttributeValue> attributes = new HashMap<>();
+        propagator.inject(context, attributes, SQS_SETTER);
+        return attributes;
+    }
+
+    public Map<String, software.amazon.awssdk.services.sns.model.MessageAttributeValue> snsAttributes(Context context) {
+        Map<String, software.amazon.awssdk.services.sns.model.MessageAttributeValue> attributes = new HashMap<>();
+        propagator.inject(context, attributes, SNS_SETTER);
+        return attributes;
+    }
+
+    /**
+     * Context of the sender, or the root context if the message carries none.
+     */
+    public Context extract(Map<String, MessageAttributeValue> attributes) {
+        return propagator.extract(Context.root(), attributes, SQS_GETTER);
+    }
+
+    /**
+     * Queue name from a queue URL, or topic name from a topic ARN, for span names.
+     */
+    public static String destinationName(String queueUrlOrTopicArn) {
+        int separator = Math.max(queueUrlOrTopicArn.lastIndexOf('/'), queueUrlOrTopicArn.lastIndexOf(':'));
+        return queueUrlOrTopicArn.substring(separator + 1);
+    }
+}
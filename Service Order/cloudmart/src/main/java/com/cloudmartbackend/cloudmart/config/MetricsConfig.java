@@ -0,0 +1,84 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import com.cloudmartbackend.cloudmart.security.VerifiedTokenCache;
+import com.cloudmartbackend.cloudmart.service.ProductCache;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters on top of what Actuator binds itself (HTTP server requests, hikaricp.*, JVM):
+ * hit ratios of the in-process caches and saturation of every connection pool.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(ProductCache productCache, VerifiedTokenCache verifiedTokenCache) {
+        return registry -> {
+            bindCache(registry, "product", productCache, ProductCache::getHitCount, ProductCache::getMissCount,
+                    ProductCache::size);
+            bindCache(registry, "verified-token", verifiedTokenCache, VerifiedTokenCache::getHitCount,
+                    VerifiedTokenCache::getMissCount, VerifiedTokenCache::size);
+        };
+    }
+
+    /**
+     * (active + waiting) / maximum pool size per pool. Above 1 requests are queueing for a connection.
+     */
+    @Bean
+    public MeterBinder connectionPoolSaturationMetrics(ObjectProvider<HikariDataSource> hikariDataSources,
+                                                       ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        return registry -> {
+            List<HikariDataSource> pools = new ArrayList<>();
+            hikariDataSources.orderedStream().forEach(pools::add);
+            routingDataSource.ifAvailable(routing -> pools.addAll(routing.getReplicaPools()));
+
+            for (HikariDataSource pool : pools) {
+                Gauge.builder("cloudmart.datasource.pool.saturation", pool, MetricsConfig::saturation)
+                        .tag("pool", String.valueOf(pool.getPoolName()))
+                        .register(registry);
+            }
+        };
+    }
+
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache,
+                                      ToDoubleFunction<T> hits, ToDoubleFunction<T> misses, ToDoubleFunction<T> size) {
+        // Same names and tags as Micrometer's cache binders, so standard dashboards pick them up
+        FunctionCounter.builder("cache.gets", cache, hits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, misses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", cache, size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cloudmart.cache.hit.ratio", cache, c -> {
+                    double total = hits.applyAsDouble(c) + misses.applyAsDouble(c);
+                    return total == 0 ? Double.NaN : hits.applyAsDouble(c) / total;
+                })
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null || pool.getMaximumPoolSize() <= 0) {
+            return 0;
+        }
+        return (mxBean.getActiveConnections() + mxBean.getThreadsAwaitingConnection()) / (double) pool.getMaximumPoolSize();
+    }
+}
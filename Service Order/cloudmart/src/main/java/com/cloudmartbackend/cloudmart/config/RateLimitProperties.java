@@ -0,0 +1,40 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route groups for RateLimitFilter. A request is limited by the first group whose
+ * patterns match; requests matching no group are not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Only enable behind a load balancer that overwrites X-Forwarded-For
+    private boolean trustForwardedFor = false;
+
+    private long idleEvictionSeconds = 600;
+
+    private List<RouteGroup> groups = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class RouteGroup {
+        private String name;
+        private List<String> patterns = new ArrayList<>();
+        // Empty means all methods
+        private List<String> methods = new ArrayList<>();
+        private double requestsPerSecond;
+        private int burst;
+    }
+}
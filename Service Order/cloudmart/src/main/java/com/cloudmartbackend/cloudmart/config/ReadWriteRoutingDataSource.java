@@ -0,0 +1,201 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica and everything else to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the JPA transaction manager asks for the
+ * connection before the transaction is marked read-only, the proxy defers it to the first statement.
+ * Replicas start out unhealthy and are only used once a health check has seen them connected and
+ * within max-lag; with none available, reads fall back to the primary.
+ *
+ * Replicas can be up to max-lag behind, so reads that must see a write made moments ago
+ * (e.g. a message consumer looking up the row its producer just committed) run inside
+ * {@link #usePrimary(Supplier)}.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaDataSourceProperties properties;
+
+    private volatile List<Replica> healthyReplicas = List.of();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter fallbackRoutes;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                      ReplicaDataSourceProperties properties, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.properties = properties;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool);
+            replicas.add(replica);
+            targets.put(pool.getPoolName(), pool);
+
+            Gauge.builder("cloudmart.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag seen by the last health check")
+                    .baseUnit("seconds")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("cloudmart.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        // Routing is decided per connection, don't fall through to the default on an unknown key
+        setLenientFallback(false);
+
+        primaryRoutes = routeCounter(meterRegistry, "primary");
+        replicaRoutes = routeCounter(meterRegistry, "replica");
+        fallbackRoutes = routeCounter(meterRegistry, "primary-fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || FORCE_PRIMARY.get() != null) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+
+        List<Replica> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            fallbackRoutes.increment();
+            return PRIMARY;
+        }
+
+        replicaRoutes.increment();
+        int index = Math.floorMod(next.getAndIncrement(), candidates.size());
+        return candidates.get(index).pool.getPoolName();
+    }
+
+    /**
+     * Run work with every connection it opens routed to the primary, including those of read-only
+     * transactions such as Spring Data's CRUD reads. A transaction that already holds its
+     * connection when this is entered keeps it. Without replicas this changes nothing.
+     */
+    public static <T> T usePrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        List<Replica> healthy = new ArrayList<>();
+
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            replica.healthy = check(replica);
+
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+            if (replica.healthy != wasHealthy) {
+                log.info("Replica {} is now {} (lag {}s)", replica.pool.getPoolName(),
+                        replica.healthy ? "in rotation" : "out of rotation", replica.lagSeconds);
+            }
+        }
+
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<HikariDataSource> getReplicaPools() {
+        return replicas.stream().map(replica -> replica.pool).toList();
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private boolean check(Replica replica) {
+        try (Connection connection = replica.pool.getConnection()) {
+            if (!StringUtils.hasText(properties.getLagQuery())) {
+                replica.lagSeconds = 0;
+                return connection.isValid(2);
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+                    if (!resultSet.next()) {
+                        // Not replicating from anything
+                        replica.lagSeconds = 0;
+                        return true;
+                    }
+
+                    long lag = resultSet.getLong(properties.getLagColumn());
+                    if (resultSet.wasNull()) {
+                        // Replication thread stopped, lag is unknown
+                        replica.lagSeconds = -1;
+                        return false;
+                    }
+
+                    replica.lagSeconds = lag;
+                    return lag <= properties.getMaxLagSeconds();
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("Health check failed for replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+            replica.lagSeconds = -1;
+            return false;
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("cloudmart.datasource.route")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @RequiredArgsConstructor
+    private static class Replica {
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile long lagSeconds;
+    }
+}
@@ -0,0 +1,44 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for ReadWriteRoutingDataSource. Credentials default to the primary's.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+
+    private List<String> urls = new ArrayList<>();
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 5;
+
+    private int minimumIdle = 1;
+
+    // Short, so a dead replica is noticed quickly instead of holding up reads
+    private long connectionTimeoutMs = 3000;
+
+    private long healthCheckIntervalMs = 5000;
+
+    // Replicas further behind than this are skipped until they catch up
+    private long maxLagSeconds = 5;
+
+    // Empty to only check connectivity
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    private String lagColumn = "Seconds_Behind_Source";
+}
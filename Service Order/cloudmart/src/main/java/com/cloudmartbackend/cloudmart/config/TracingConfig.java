@@ -0,0 +1,84 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Local OpenTelemetry SDK for the order pipeline. Trace context travels as W3C traceparent
+ * in HTTP headers and in SQS/SNS message attributes (see {@link MessageTracing}).
+ *
+ * Nothing is exported by default; the tracing profile writes sampled spans to a rotating file.
+ */
+@Configuration
+@Slf4j
+public class TracingConfig {
+
+    public static final String INSTRUMENTATION_SCOPE = "com.cloudmartbackend.cloudmart";
+
+    @Value("${spring.application.name:cloudmart}")
+    private String applicationName;
+
+    @Value("${app.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tracing.exporter:none}")
+    private String exporter;
+
+    // Root spans only; downstream spans follow the sampling decision in the traceparent
+    @Value("${app.tracing.sample-ratio:0.1}")
+    private double sampleRatio;
+
+    @Value("${app.tracing.file:logs/traces.jsonl}")
+    private String file;
+
+    @Value("${app.tracing.max-file-bytes:104857600}")
+    private long maxFileBytes;
+
+    @Bean
+    public SpanExporter spanExporter(ObjectMapper objectMapper) {
+        if ("file".equalsIgnoreCase(exporter)) {
+            log.info("Exporting spans to {} (sample ratio {})", file, sampleRatio);
+            return new JsonFileSpanExporter(Path.of(file), maxFileBytes, objectMapper);
+        }
+        // Spans are still created and propagated, just not written anywhere
+        return SpanExporter.composite();
+    }
+
+    @Bean
+    public OpenTelemetry openTelemetry(SpanExporter spanExporter) {
+        if (!enabled) {
+            return OpenTelemetry.noop();
+        }
+
+        Resource resource = Resource.getDefault().merge(
+                Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), applicationName)));
+
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(resource)
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(sampleRatio)))
+                .addSpanProcessor(BatchSpanProcessor.builder(spanExporter).build())
+                .build();
+
+        // Closed with the context, which flushes the batch processor
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+}
@@ -3,11 +3,13 @@ package com.cloudmartbackend.cloudmart.controller;
 
 import com.cloudmart.dto.request.RegisterRequest;
 import com.cloudmartbackend.cloudmart.dto.request.LoginRequest;
+import com.cloudmartbackend.cloudmart.dto.request.RefreshTokenRequest;
 import com.cloudmartbackend.cloudmart.dto.response.ApiResponse;
 import com.cloudmartbackend.cloudmart.dto.response.AuthResponse;
 import com.cloudmartbackend.cloudmart.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -33,4 +35,22 @@ public class AuthController {
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request);
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed", response));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestBody(required = false) RefreshTokenRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request != null ? request.getRefreshToken() : null, accessToken);
+        return ResponseEntity.ok(ApiResponse.success("Logged out", null));
+    }
 }
@@ -1,7 +1,11 @@
 package com.cloudmartbackend.cloudmart.controller;
 
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,9 +19,11 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*", maxAge = 3600)
-
+@RequiredArgsConstructor
 public class HealthCheckController {
 
+    private final HealthEndpoint healthEndpoint;
+
     @Value("${spring.profiles.active:default}")
     private String activeProfile;
 
@@ -26,13 +32,17 @@ public class HealthCheckController {
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
+        // Aggregated Actuator health (database, disk space, ...) instead of a fixed "UP"
+        Status status = healthEndpoint.health().getStatus();
+
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", status.getCode());
         health.put("timestamp", LocalDateTime.now());
         health.put("profile", activeProfile);
         health.put("port", serverPort);
         health.put("service", "CloudMart Backend");
-        return ResponseEntity.ok(health);
+        return ResponseEntity.status(Status.UP.equals(status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(health);
     }
 
     @GetMapping("/ping")
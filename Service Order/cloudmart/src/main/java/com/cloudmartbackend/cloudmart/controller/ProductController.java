@@ -1,8 +1,11 @@
 package com.cloudmartbackend.cloudmart.controller;
 
 
+import com.cloudmartbackend.cloudmart.dto.request.ConfirmImageUploadRequest;
+import com.cloudmartbackend.cloudmart.dto.request.ImageUploadUrlRequest;
 import com.cloudmartbackend.cloudmart.dto.request.ProductRequest;
 import com.cloudmartbackend.cloudmart.dto.response.ApiResponse;
+import com.cloudmartbackend.cloudmart.dto.response.ImageUploadUrlResponse;
 import com.cloudmartbackend.cloudmart.dto.response.PageResponse;
 import com.cloudmartbackend.cloudmart.dto.response.ProductResponse;
 import com.cloudmartbackend.cloudmart.service.ProductService;
@@ -115,6 +118,26 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Product updated successfully", product));
     }
 
+    @PostMapping("/{id}/image/upload-url")
+    @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
+    public ResponseEntity<ApiResponse<ImageUploadUrlResponse>> createImageUploadUrl(
+            @PathVariable Long id,
+            @Valid @RequestBody ImageUploadUrlRequest request
+    ) {
+        ImageUploadUrlResponse uploadUrl = productService.createImageUploadUrl(id, request);
+        return ResponseEntity.ok(ApiResponse.success(uploadUrl));
+    }
+
+    @PostMapping("/{id}/image/confirm")
+    @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
+    public ResponseEntity<ApiResponse<ProductResponse>> confirmImageUpload(
+            @PathVariable Long id,
+            @Valid @RequestBody ConfirmImageUploadRequest request
+    ) {
+        ProductResponse product = productService.confirmImageUpload(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Product image updated successfully", product));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('SELLER', 'ADMIN')")
     public ResponseEntity<ApiResponse<Void>> deleteProduct(@PathVariable Long id) {
@@ -1,11 +1,13 @@
 package com.cloudmartbackend.cloudmart.domain.entity;
 
 import lombok.*;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +26,10 @@ public class Cart {
 
     private Instant updatedAt;
 
+    private Long expiresAt;
+
+    private SdkBytes encodedItems;
+
     // DynamoDB Partition Key
     @DynamoDbPartitionKey
     @DynamoDbAttribute("userId")
@@ -55,6 +61,26 @@ public class Cart {
         this.updatedAt = updatedAt;
     }
 
+    // DynamoDB TTL attribute (epoch seconds)
+    @DynamoDbAttribute("expiresAt")
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    // Compact binary form of items (see CartItemCodec), used instead of "items" when enabled
+    @DynamoDbAttribute("encodedItems")
+    public SdkBytes getEncodedItems() {
+        return encodedItems;
+    }
+
+    public void setEncodedItems(SdkBytes encodedItems) {
+        this.encodedItems = encodedItems;
+    }
+
     // Business logic methods
     public BigDecimal calculateTotal() {
         return items.stream()
@@ -85,4 +111,9 @@ public class Cart {
         items.clear();
         this.updatedAt = Instant.now();
     }
+
+    public void refreshExpiry(Duration ttl) {
+        Instant lastTouched = updatedAt != null ? updatedAt : Instant.now();
+        this.expiresAt = lastTouched.plus(ttl).getEpochSecond();
+    }
 }
\ No newline at end of file
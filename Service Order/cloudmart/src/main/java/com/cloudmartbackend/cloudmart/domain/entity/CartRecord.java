@@ -0,0 +1,34 @@
+package com.cloudmartbackend.cloudmart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the carts table behind JdbcCartStore (app.cart.store=jdbc). Mapped so the table is
+ * created and validated with the rest of the schema; the store reads and writes it through
+ * JdbcTemplate. Cart itself is the DynamoDB item, hence the separate class.
+ */
+@Entity
+@Table(name = "carts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartRecord {
+
+    @Id
+    @Column(length = 64)
+    private String userId;
+
+    // CartItem list as JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String items;
+
+    private LocalDateTime updatedAt;
+
+    // Epoch seconds, same as Cart.expiresAt
+    private Long expiresAt;
+}
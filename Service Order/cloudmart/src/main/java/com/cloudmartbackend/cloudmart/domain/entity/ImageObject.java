@@ -0,0 +1,34 @@
+package com.cloudmartbackend.cloudmart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reference count of a content-addressed S3 object. Mapped so the table is created and
+ * validated with the rest of the schema; rows are written by ImageReferenceStore, whose
+ * upserts and row locks go through JdbcTemplate.
+ */
+@Entity
+@Table(name = "image_objects")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageObject {
+
+    @Id
+    @Column(length = 512)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
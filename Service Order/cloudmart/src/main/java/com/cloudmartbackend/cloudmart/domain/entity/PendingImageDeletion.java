@@ -0,0 +1,38 @@
+package com.cloudmartbackend.cloudmart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * S3 key waiting to be deleted. Rows are queued and drained by PendingImageDeletionStore;
+ * the index serves the worker's due-first scan.
+ */
+@Entity
+@Table(name = "pending_image_deletions", indexes = {
+        @Index(name = "idx_pending_image_deletions_next_attempt", columnList = "nextAttemptAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 512)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -38,6 +38,13 @@ public class Product {
 
     private String imageUrl;
 
+    // Resized copies of imageUrl, filled in by the background variant pipeline
+    private String thumbnailUrl;
+
+    private String cardUrl;
+
+    private String detailUrl;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ProductStatus status;
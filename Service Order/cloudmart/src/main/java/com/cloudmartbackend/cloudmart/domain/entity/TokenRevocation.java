@@ -0,0 +1,37 @@
+package com.cloudmartbackend.cloudmart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Revoked access tokens, shared between instances. A row either revokes a single token (jti)
+ * or every token of a user issued before notBefore. Rows can go once expiresAt has passed,
+ * since the tokens they cover have expired by then.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_expires", columnList = "expiresAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36)
+    private String jti;
+
+    private Long userId;
+
+    // Epoch millis
+    private Long notBefore;
+
+    // Epoch millis
+    @Column(nullable = false)
+    private Long expiresAt;
+}
@@ -0,0 +1,14 @@
+package com.cloudmartbackend.cloudmart.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmImageUploadRequest {
+
+    @NotBlank(message = "Key is required")
+    private String key;
+}
@@ -9,6 +9,9 @@ import lombok.*;
 @Builder
 public class AuthResponse {
     private String token;
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
     private String type = "Bearer";
     private UserResponse user;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.cloudmartbackend.cloudmart.dto.response;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageUploadUrlResponse {
+    private String uploadUrl;
+    private String method;
+    // Must be sent with the PUT exactly as given, they are part of the signature
+    private Map<String, String> headers;
+    // Pass back to the confirm endpoint once the PUT succeeded
+    private String key;
+    private Instant expiresAt;
+}
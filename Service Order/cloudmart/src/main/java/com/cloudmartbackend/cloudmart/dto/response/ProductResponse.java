@@ -21,6 +21,9 @@ public class ProductResponse {
     private String category;
     private String brand;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String detailUrl;
     private String status;
     private Long sellerId;
     private String sellerName;
@@ -36,10 +39,18 @@ public class ProductResponse {
                 .category(product.getCategory())
                 .brand(product.getBrand())
                 .imageUrl(product.getImageUrl())
+                // Until the variants are generated, every size points at the original
+                .thumbnailUrl(orOriginal(product.getThumbnailUrl(), product))
+                .cardUrl(orOriginal(product.getCardUrl(), product))
+                .detailUrl(orOriginal(product.getDetailUrl(), product))
                 .status(product.getStatus().name())
                 .sellerId(product.getSeller().getId())
                 .sellerName(product.getSeller().getFirstName() + " " + product.getSeller().getLastName())
                 .createdAt(product.getCreatedAt())
                 .build();
     }
+
+    private static String orOriginal(String variantUrl, Product product) {
+        return variantUrl != null ? variantUrl : product.getImageUrl();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of cart items for the DynamoDB "encodedItems" attribute.
+ *
+ * Layout: [version:1][flags:1][payload], where payload is
+ * varint(count) followed by varint(productId) varint(quantity) varint(priceInMinorUnits) per item.
+ * When FLAG_DEFLATE is set the payload is raw-deflate compressed.
+ * Display fields (name, image, stock) are not stored and must be rehydrated by the caller.
+ */
+public final class CartItemCodec {
+
+    public static final byte VERSION_1 = 1;
+
+    private static final byte FLAG_DEFLATE = 0x01;
+    private static final int PRICE_SCALE = 2;
+    private static final int MAX_DECODED_SIZE = 400 * 1024;
+
+    private CartItemCodec() {
+    }
+
+    public static byte[] encode(List<CartItem> items, int compressionThreshold) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(8 + items.size() * 8);
+        writeVarLong(payload, items.size());
+
+        for (CartItem item : items) {
+            writeVarLong(payload, item.getProductId());
+            writeVarLong(payload, item.getQuantity());
+            writeVarLong(payload, toMinorUnits(item.getPrice()));
+        }
+
+        byte[] raw = payload.toByteArray();
+        byte flags = 0;
+
+        if (compressionThreshold > 0 && raw.length >= compressionThreshold) {
+            byte[] compressed = deflate(raw);
+            if (compressed.length < raw.length) {
+                raw = compressed;
+                flags |= FLAG_DEFLATE;
+            }
+        }
+
+        byte[] encoded = new byte[raw.length + 2];
+        encoded[0] = VERSION_1;
+        encoded[1] = flags;
+        System.arraycopy(raw, 0, encoded, 2, raw.length);
+        return encoded;
+    }
+
+    public static List<CartItem> decode(byte[] encoded) {
+        if (encoded == null || encoded.length < 2) {
+            throw new IllegalArgumentException("Encoded cart items are truncated");
+        }
+
+        byte version = encoded[0];
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported cart item encoding version: " + version);
+        }
+
+        byte[] raw = new byte[encoded.length - 2];
+        System.arraycopy(encoded, 2, raw, 0, raw.length);
+
+        if ((encoded[1] & FLAG_DEFLATE) != 0) {
+            raw = inflate(raw);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(raw);
+        int count = (int) readVarLong(buffer);
+        List<CartItem> items = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            CartItem item = CartItem.builder()
+                    .productId(readVarLong(buffer))
+                    .quantity((int) readVarLong(buffer))
+                    .price(BigDecimal.valueOf(readVarLong(buffer), PRICE_SCALE))
+                    .build();
+            item.calculateSubtotal();
+            items.add(item);
+        }
+
+        return items;
+    }
+
+    private static long toMinorUnits(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values cannot be encoded: " + value);
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        while (shift < 64) {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Encoded cart items are truncated");
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Malformed varint in encoded cart items");
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+            byte[] chunk = new byte[512];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.write(chunk, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater(true);
+        try {
+            // nowrap inflaters may need one trailing dummy byte to detect the end of stream
+            inflater.setInput(Arrays.copyOf(compressed, compressed.length + 1));
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 3);
+            byte[] chunk = new byte[512];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(chunk, 0, read);
+                if (out.size() > MAX_DECODED_SIZE) {
+                    throw new IllegalArgumentException("Encoded cart items exceed the DynamoDB item size");
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed cart items", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+
+/**
+ * Storage backend for shopping carts, selected with app.cart.store (dynamodb, memory or jdbc).
+ *
+ * Implementations return a cart the caller may mutate freely, never one shared with the store,
+ * and treat carts whose expiresAt has passed as absent.
+ */
+public interface CartStore {
+
+    Cart load(String userId);
+
+    void save(Cart cart);
+
+    void delete(String userId);
+}
@@ -0,0 +1,72 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.time.Instant;
+import java.util.ArrayList;
+
+@Repository
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "dynamodb", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DynamoDbCartStore implements CartStore {
+
+    private final DynamoDbTable<Cart> cartTable;
+
+    // "map" (nested attribute per item) or "compact" (versioned binary, see CartItemCodec)
+    @Value("${aws.dynamodb.cart-item-format:map}")
+    private String cartItemFormat;
+
+    @Value("${aws.dynamodb.cart-item-compression-threshold:256}")
+    private int compressionThreshold;
+
+    @Override
+    public Cart load(String userId) {
+        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
+
+        // TTL deletion lags, so expired carts can still be returned by DynamoDB
+        if (cart == null || (cart.getExpiresAt() != null && cart.getExpiresAt() < Instant.now().getEpochSecond())) {
+            return null;
+        }
+
+        // Both formats stay readable while carts migrate from "map" to "compact".
+        // Compact items only carry productId, quantity and price; the caller rehydrates the rest.
+        if (cart.getEncodedItems() != null) {
+            cart.setItems(CartItemCodec.decode(cart.getEncodedItems().asByteArray()));
+            cart.setEncodedItems(null);
+        } else if (cart.getItems() == null) {
+            cart.setItems(new ArrayList<>());
+        }
+
+        return cart;
+    }
+
+    @Override
+    public void save(Cart cart) {
+        if (!"compact".equalsIgnoreCase(cartItemFormat)) {
+            cartTable.putItem(cart);
+            return;
+        }
+
+        Cart stored = Cart.builder()
+                .userId(cart.getUserId())
+                .items(null)
+                .updatedAt(cart.getUpdatedAt())
+                .expiresAt(cart.getExpiresAt())
+                .encodedItems(SdkBytes.fromByteArray(CartItemCodec.encode(cart.getItems(), compressionThreshold)))
+                .build();
+
+        cartTable.putItem(stored);
+    }
+
+    @Override
+    public void delete(String userId) {
+        cartTable.deleteItem(Key.builder().partitionValue(userId).build());
+    }
+}
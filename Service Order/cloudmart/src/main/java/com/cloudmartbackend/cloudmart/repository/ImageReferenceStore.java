@@ -0,0 +1,129 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reference counts for content-addressed S3 objects, which several products can share.
+ *
+ * A key whose last reference is released keeps its row at zero until the object is actually
+ * deleted. The deletion worker locks those rows while it deletes, so an upload of the same
+ * content waits for the delete to finish instead of skipping the upload for an object that is
+ * about to disappear.
+ *
+ * The table is mapped by ImageObject.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ImageReferenceStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void acquire(String key) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update(
+                "INSERT INTO image_objects (object_key, ref_count, created_at, updated_at) VALUES (?, 1, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = VALUES(updated_at)",
+                key, now, now);
+    }
+
+    /**
+     * Drops one reference. UNREFERENCED means none are left and the object can be deleted;
+     * UNTRACKED means the key was never counted (e.g. uploads from before deduplication).
+     */
+    public Release release(String key) {
+        // Each statement is conditional, so concurrent releases and acquires can't push the count below zero
+        while (true) {
+            Timestamp now = Timestamp.from(Instant.now());
+            int decremented = jdbcTemplate.update(
+                    "UPDATE image_objects SET ref_count = ref_count - 1, updated_at = ? " +
+                            "WHERE object_key = ? AND ref_count > 1",
+                    now, key);
+            if (decremented > 0) {
+                return Release.REFERENCED;
+            }
+
+            int released = jdbcTemplate.update(
+                    "UPDATE image_objects SET ref_count = 0, updated_at = ? WHERE object_key = ? AND ref_count = 1",
+                    now, key);
+            if (released > 0) {
+                return Release.UNREFERENCED;
+            }
+
+            List<Integer> counts = findCount(key);
+            if (counts.isEmpty()) {
+                return Release.UNTRACKED;
+            }
+            if (counts.get(0) == 0) {
+                return Release.UNREFERENCED;
+            }
+            // An acquire got in between the statements, go again
+        }
+    }
+
+    public int getReferenceCount(String key) {
+        List<Integer> counts = findCount(key);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    /**
+     * Locks the rows of the given keys until the surrounding transaction ends and returns the keys
+     * that are referenced again. Must run in a transaction.
+     */
+    public Set<String> lockForDeletion(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+
+        // Zero rows are locked as well, that's what makes a concurrent acquire wait
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT object_key, ref_count FROM image_objects WHERE object_key IN (" + placeholders(keys.size()) + ") FOR UPDATE",
+                rs -> {
+                    if (rs.getInt("ref_count") > 0) {
+                        referenced.add(rs.getString("object_key"));
+                    }
+                },
+                keys.toArray());
+        return referenced;
+    }
+
+    public int removeUnreferenced(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        return jdbcTemplate.update(
+                "DELETE FROM image_objects WHERE object_key IN (" + placeholders(keys.size()) + ") AND ref_count = 0",
+                keys.toArray());
+    }
+
+    public Set<String> findReferencedKeys() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT object_key FROM image_objects WHERE ref_count > 0", String.class));
+    }
+
+    private List<Integer> findCount(String key) {
+        return jdbcTemplate.queryForList(
+                "SELECT ref_count FROM image_objects WHERE object_key = ?", Integer.class, key);
+    }
+
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public enum Release {
+        REFERENCED, UNREFERENCED, UNTRACKED
+    }
+}
@@ -0,0 +1,96 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local cart store for local development and tests.
+ * Carts are copied on the way in and out; each save replaces the stored copy atomically.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "memory")
+@Slf4j
+public class InMemoryCartStore implements CartStore {
+
+    private final Map<String, Cart> carts = new ConcurrentHashMap<>();
+
+    @Override
+    public Cart load(String userId) {
+        Cart cart = carts.get(userId);
+
+        if (cart == null) {
+            return null;
+        }
+
+        if (isExpired(cart, Instant.now().getEpochSecond())) {
+            // Only drops this exact snapshot, never a cart saved concurrently
+            carts.remove(userId, cart);
+            return null;
+        }
+
+        return copyOf(cart);
+    }
+
+    @Override
+    public void save(Cart cart) {
+        carts.put(cart.getUserId(), copyOf(cart));
+    }
+
+    @Override
+    public void delete(String userId) {
+        carts.remove(userId);
+    }
+
+    /**
+     * Stand-in for DynamoDB TTL
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void evictExpiredCarts() {
+        long now = Instant.now().getEpochSecond();
+        int before = carts.size();
+        carts.values().removeIf(cart -> isExpired(cart, now));
+        log.debug("Evicted {} expired in-memory carts", before - carts.size());
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    private static boolean isExpired(Cart cart, long now) {
+        return cart.getExpiresAt() != null && cart.getExpiresAt() < now;
+    }
+
+    private static Cart copyOf(Cart cart) {
+        List<CartItem> items = new ArrayList<>();
+        if (cart.getItems() != null) {
+            for (CartItem item : cart.getItems()) {
+                items.add(CartItem.builder()
+                        .productId(item.getProductId())
+                        .productName(item.getProductName())
+                        .price(item.getPrice())
+                        .quantity(item.getQuantity())
+                        .subtotal(item.getSubtotal())
+                        .imageUrl(item.getImageUrl())
+                        .availableStock(item.getAvailableStock())
+                        .build());
+            }
+        }
+
+        return Cart.builder()
+                .userId(cart.getUserId())
+                .items(items)
+                .updatedAt(cart.getUpdatedAt())
+                .expiresAt(cart.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cart store on the application datasource. Items are kept as a JSON document per user.
+ *
+ * The table is mapped by CartRecord. The upsert uses MySQL's ON DUPLICATE KEY UPDATE, like the
+ * other JdbcTemplate stores; tests run it on H2 in MySQL mode.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcCartStore implements CartStore {
+
+    private static final TypeReference<List<CartItem>> ITEM_LIST = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Cart load(String userId) {
+        List<Cart> carts = jdbcTemplate.query(
+                "SELECT user_id, items, updated_at, expires_at FROM carts " +
+                        "WHERE user_id = ? AND (expires_at IS NULL OR expires_at >= ?)",
+                (rs, rowNum) -> {
+                    Timestamp updatedAt = rs.getTimestamp("updated_at");
+                    long expiresAt = rs.getLong("expires_at");
+                    return Cart.builder()
+                            .userId(rs.getString("user_id"))
+                            .items(readItems(rs.getString("items")))
+                            .updatedAt(updatedAt != null ? updatedAt.toInstant() : null)
+                            .expiresAt(rs.wasNull() ? null : expiresAt)
+                            .build();
+                },
+                userId, Instant.now().getEpochSecond());
+
+        return carts.isEmpty() ? null : carts.get(0);
+    }
+
+    @Override
+    public void save(Cart cart) {
+        jdbcTemplate.update(
+                "INSERT INTO carts (user_id, items, updated_at, expires_at) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE items = VALUES(items), updated_at = VALUES(updated_at), " +
+                        "expires_at = VALUES(expires_at)",
+                cart.getUserId(),
+                writeItems(cart.getItems()),
+                cart.getUpdatedAt() != null ? Timestamp.from(cart.getUpdatedAt()) : null,
+                cart.getExpiresAt());
+    }
+
+    @Override
+    public void delete(String userId) {
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id = ?", userId);
+    }
+
+    /**
+     * Stand-in for DynamoDB TTL
+     */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 600000)
+    public void deleteExpiredCarts() {
+        int deleted = jdbcTemplate.update("DELETE FROM carts WHERE expires_at < ?", Instant.now().getEpochSecond());
+        if (deleted > 0) {
+            log.info("Deleted {} expired carts", deleted);
+        }
+    }
+
+    private List<CartItem> readItems(String json) {
+        try {
+            return json == null ? new ArrayList<>() : new ArrayList<>(objectMapper.readValue(json, ITEM_LIST));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt cart items in carts table", e);
+        }
+    }
+
+    private String writeItems(List<CartItem> items) {
+        try {
+            return objectMapper.writeValueAsString(items != null ? items : List.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cart items", e);
+        }
+    }
+}
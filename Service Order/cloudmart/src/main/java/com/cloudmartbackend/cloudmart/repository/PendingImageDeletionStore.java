@@ -0,0 +1,89 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable queue of S3 keys to delete. Rows are written in the transaction that stops using the
+ * image, so a rolled back update never loses its image, and are drained by ImageDeletionWorker.
+ * A key may be queued more than once; deleting it twice is harmless.
+ *
+ * The table is mapped by PendingImageDeletion.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class PendingImageDeletionStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void enqueue(String key) {
+        enqueueAll(List.of(key));
+    }
+
+    public void enqueueAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            rows.add(new Object[]{key, now, now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO pending_image_deletions (object_key, attempts, next_attempt_at, created_at) VALUES (?, 0, ?, ?)",
+                rows);
+    }
+
+    public List<PendingDeletion> findDue(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, object_key, attempts FROM pending_image_deletions " +
+                        "WHERE next_attempt_at <= ? ORDER BY next_attempt_at, id LIMIT ?",
+                (rs, rowNum) -> new PendingDeletion(rs.getLong("id"), rs.getString("object_key"), rs.getInt("attempts")),
+                Timestamp.from(Instant.now()), limit);
+    }
+
+    public void remove(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.update(
+                "DELETE FROM pending_image_deletions WHERE id IN (" + ImageReferenceStore.placeholders(ids.size()) + ")",
+                ids.toArray());
+    }
+
+    public void reschedule(PendingDeletion deletion, Instant nextAttemptAt) {
+        jdbcTemplate.update(
+                "UPDATE pending_image_deletions SET attempts = ?, next_attempt_at = ? WHERE id = ?",
+                deletion.getAttempts() + 1, Timestamp.from(nextAttemptAt), deletion.getId());
+    }
+
+    public List<String> findAllKeys() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT object_key FROM pending_image_deletions", String.class);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_image_deletions", Long.class);
+        return count != null ? count : 0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PendingDeletion {
+        private final long id;
+        private final String key;
+        private final int attempts;
+    }
+}
@@ -6,9 +6,11 @@ import com.cloudmartbackend.cloudmart.domain.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -38,4 +40,19 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT DISTINCT p.category FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.category")
     List<String> findDistinctCategories();
+
+    // Every image a product points at, including variants; used to find orphaned S3 objects
+    @Query("SELECT p.imageUrl, p.thumbnailUrl, p.cardUrl, p.detailUrl FROM Product p WHERE p.imageUrl IS NOT NULL")
+    List<Object[]> findAllImageUrls();
+
+    // Only applies while the product still has the image the variants were made from
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.thumbnailUrl = :thumbnailUrl, p.cardUrl = :cardUrl, p.detailUrl = :detailUrl " +
+            "WHERE p.id = :id AND p.imageUrl = :imageUrl")
+    int updateImageVariants(@Param("id") Long id,
+                            @Param("imageUrl") String imageUrl,
+                            @Param("thumbnailUrl") String thumbnailUrl,
+                            @Param("cardUrl") String cardUrl,
+                            @Param("detailUrl") String detailUrl);
 }
\ No newline at end of file
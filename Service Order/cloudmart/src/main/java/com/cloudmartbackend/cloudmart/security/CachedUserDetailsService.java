@@ -0,0 +1,75 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches {@link UserDetailsServiceImpl} lookups by email. UserService evicts entries when
+ * a user changes, so lock and disable take effect immediately; the TTL bounds anything else.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsServiceImpl delegate;
+
+    @Value("${app.security.user-details-cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    @Value("${app.security.user-details-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    private final Map<String, CachedUserDetails> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        long now = System.nanoTime();
+        CachedUserDetails cached = cache.get(email);
+
+        if (cached == null || cached.expiresAtNanos - now <= 0) {
+            UserDetails loaded = delegate.loadUserByUsername(email);
+
+            if (cache.size() >= maxSize) {
+                cache.values().removeIf(entry -> entry.expiresAtNanos - now <= 0);
+                if (cache.size() >= maxSize) {
+                    log.debug("User details cache full ({} entries), clearing", cache.size());
+                    cache.clear();
+                }
+            }
+
+            cached = new CachedUserDetails(loaded, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            cache.put(email, cached);
+        }
+
+        // Copy, since authentication erases the password on the instance it returns
+        return User.withUserDetails(cached.userDetails).build();
+    }
+
+    public void evict(String email) {
+        cache.remove(email);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    @AllArgsConstructor
+    private static class CachedUserDetails {
+        private final UserDetails userDetails;
+        private final long expiresAtNanos;
+    }
+}
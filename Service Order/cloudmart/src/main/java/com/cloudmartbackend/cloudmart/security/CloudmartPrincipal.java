@@ -0,0 +1,41 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Authenticated user as described by the JWT claims. Carries what request handling needs
+ * (id, role, status) so it doesn't have to load the User entity.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CloudmartPrincipal implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String email;
+    private final User.UserRole role;
+    private final User.UserStatus status;
+
+    public static CloudmartPrincipal fromUser(User user) {
+        return new CloudmartPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getStatus());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return role == User.UserRole.ADMIN;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
@@ -1,28 +1,39 @@
 package com.cloudmartbackend.cloudmart.security;
 
 
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import com.cloudmartbackend.cloudmart.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates Bearer tokens. Only ACTIVE users whose token has not been revoked get through,
+ * whether the principal comes from the token claims or, for tokens issued before the claims
+ * existed, from the stored user.
+ */
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(
@@ -33,7 +44,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -41,22 +51,53 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CloudmartPrincipal principal = verifiedTokenCache.get(request, jwt);
+
+        if (principal == null) {
+            final Claims claims;
+            try {
+                // Parsing verifies signature and expiry
+                claims = jwtService.extractAllClaims(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Expired or invalid: continue unauthenticated so the entry point answers 401
+                log.debug("Rejected bearer token: {}", e.getMessage());
+                SecurityContextHolder.clearContext();
+                filterChain.doFilter(request, response);
+                return;
             }
+
+            principal = jwtService.extractPrincipal(claims);
+
+            if (principal == null && claims.getSubject() != null) {
+                // Token issued before claims were embedded, build the principal from the stored user
+                principal = userRepository.findByEmail(claims.getSubject())
+                        .map(CloudmartPrincipal::fromUser)
+                        .orElse(null);
+            }
+
+            if (principal != null) {
+                if (principal.getStatus() != User.UserStatus.ACTIVE
+                        || tokenRevocationList.isRevoked(principal.getUserId(), claims.getId(), claims.getIssuedAt().getTime())) {
+                    principal = null;
+                } else {
+                    verifiedTokenCache.put(jwt, principal, claims);
+                }
+            }
+        }
+
+        if (principal != null) {
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
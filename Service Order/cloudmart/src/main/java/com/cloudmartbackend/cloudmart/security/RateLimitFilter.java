@@ -0,0 +1,180 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.config.RateLimitProperties;
+import com.cloudmartbackend.cloudmart.dto.response.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token buckets per route group (see {@link RateLimitProperties}). Runs ahead of
+ * the JWT filter, so authenticated clients are keyed by user id only when their token is
+ * already in the verified-token cache; everything else is keyed by IP.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final List<RouteGroup> groups = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        PathPatternParser parser = new PathPatternParser();
+
+        for (RateLimitProperties.RouteGroup config : properties.getGroups()) {
+            List<PathPattern> patterns = new ArrayList<>();
+            for (String pattern : config.getPatterns()) {
+                patterns.add(parser.parse(pattern.trim()));
+            }
+
+            Set<String> methods = new HashSet<>();
+            for (String method : config.getMethods()) {
+                methods.add(method.trim().toUpperCase());
+            }
+
+            groups.add(new RouteGroup(
+                    config.getName(),
+                    patterns,
+                    methods,
+                    new TokenBucketRateLimiter(config.getRequestsPerSecond(), config.getBurst()),
+                    Counter.builder("cloudmart.ratelimit.rejected").tag("group", config.getName()).register(meterRegistry)
+            ));
+
+            log.info("Rate limit group {}: {} req/s, burst {}, patterns {}",
+                    config.getName(), config.getRequestsPerSecond(), config.getBurst(), config.getPatterns());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RouteGroup group = properties.isEnabled() ? match(request) : null;
+
+        if (group != null) {
+            long waitNanos = group.limiter.tryAcquire(clientKey(request), System.nanoTime());
+
+            if (waitNanos > 0) {
+                group.rejected.increment();
+                reject(request, response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleEvictionSeconds());
+        for (RouteGroup group : groups) {
+            int evicted = group.limiter.evictIdle(now, idleNanos);
+            if (evicted > 0) {
+                log.debug("Evicted {} idle rate limit buckets from group {}", evicted, group.name);
+            }
+        }
+    }
+
+    private RouteGroup match(HttpServletRequest request) {
+        PathContainer path = null;
+
+        for (RouteGroup group : groups) {
+            if (!group.methods.isEmpty() && !group.methods.contains(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            for (PathPattern pattern : group.patterns) {
+                if (pattern.matches(path)) {
+                    return group;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            CloudmartPrincipal principal = verifiedTokenCache.get(request, authHeader.substring(7));
+            if (principal != null) {
+                return "u:" + principal.getUserId();
+            }
+        }
+
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return "ip:" + (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message("Too many requests, please retry later")
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    @AllArgsConstructor
+    private static class RouteGroup {
+        private final String name;
+        private final List<PathPattern> patterns;
+        private final Set<String> methods;
+        private final TokenBucketRateLimiter limiter;
+        private final Counter rejected;
+    }
+}
@@ -15,23 +15,56 @@ public class SecurityUtils {
 
     private final UserRepository userRepository;
 
-    public User getCurrentUser() {
+    /**
+     * The authenticated user as described by the token. Only authentications that did not
+     * come through the JWT filter need a database lookup.
+     */
+    public CloudmartPrincipal getCurrentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new UnauthorizedException("User not authenticated");
         }
 
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        if (authentication.getPrincipal() instanceof CloudmartPrincipal principal) {
+            return principal;
+        }
+
+        return userRepository.findByEmail(authentication.getName())
+                .map(CloudmartPrincipal::fromUser)
+                .orElseThrow(() -> new UnauthorizedException("User not found"));
+    }
+
+    /**
+     * Loads the full User entity. Prefer {@link #getCurrentUserId()}, {@link #isAdmin()}
+     * or {@link #getCurrentUserReference()} when those are enough.
+     */
+    public User getCurrentUser() {
+        return userRepository.findById(getCurrentUserId())
                 .orElseThrow(() -> new UnauthorizedException("User not found"));
     }
 
+    /**
+     * Uninitialized proxy for the current user, for setting associations and query
+     * parameters without a SELECT.
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
     public Long getCurrentUserId() {
-        return getCurrentUser().getId();
+        return getCurrentPrincipal().getUserId();
+    }
+
+    public User.UserRole getCurrentUserRole() {
+        return getCurrentPrincipal().getRole();
+    }
+
+    public boolean isAdmin() {
+        return getCurrentPrincipal().isAdmin();
     }
 
     public boolean isCurrentUser(Long userId) {
         return getCurrentUserId().equals(userId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by client, implemented with GCRA: each bucket is a single AtomicLong
+ * (the theoretical arrival time of the next request), updated with CAS. No locks are taken
+ * on the request path; the ConcurrentHashMap only locks a bin when a bucket is first created.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    // How far ahead of now the arrival time may run, i.e. the burst
+    private final long toleranceNanos;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(double requestsPerSecond, int burst) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("requestsPerSecond must be > 0 and burst >= 1");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.toleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * Take one token. Returns 0 if allowed, otherwise how many nanos until a token is available.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long start = tat - nowNanos > 0 ? tat : nowNanos;
+            long newTat = start + emissionIntervalNanos;
+            long wait = newTat - nowNanos - toleranceNanos;
+
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Remove buckets that have been full for at least idleNanos. A full bucket behaves
+     * exactly like a new one, so removing it never changes a client's allowance.
+     */
+    public int evictIdle(long nowNanos, long idleNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> nowNanos - bucket.get() > idleNanos);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,198 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.domain.entity.TokenRevocation;
+import com.cloudmartbackend.cloudmart.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory view of revoked access tokens, checked on every authenticated request.
+ *
+ * Single tokens (logout) are looked up in a bloom filter first, so the common case of a
+ * token that was never revoked costs a few hash probes; only filter hits consult the exact set.
+ * Users (status change) are revoked with a not-before time. Revocations are persisted and
+ * other instances pick them up on the next poll.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationList {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final JwtService jwtService;
+
+    @Value("${app.security.revocation.bloom-bits:1048576}")
+    private int bloomBits = 1 << 20;
+
+    @Value("${app.security.revocation.bloom-hashes:5}")
+    private int bloomHashes = 5;
+
+    // Ids are assigned before commit, so re-read a few behind the last one seen
+    @Value("${app.security.revocation.poll-overlap:50}")
+    private long pollOverlap = 50;
+
+    private volatile BloomFilter bloomFilter;
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Long> notBeforeByUser = new ConcurrentHashMap<>();
+    private volatile long lastSeenId;
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new BloomFilter(bloomBits, bloomHashes);
+    }
+
+    public boolean isRevoked(Long userId, String jti, long issuedAtMillis) {
+        Long notBefore = notBeforeByUser.get(userId);
+        if (notBefore != null && issuedAtMillis < notBefore) {
+            return true;
+        }
+
+        return jti != null && bloomFilter.mightContain(jti) && revokedTokens.containsKey(jti);
+    }
+
+    /**
+     * Revoke one access token until it expires.
+     */
+    @Transactional
+    public void revokeToken(String jti, long expiresAtMillis) {
+        applyToken(jti, expiresAtMillis);
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .jti(jti)
+                .expiresAt(expiresAtMillis)
+                .build());
+    }
+
+    /**
+     * Revoke every access token issued to the user so far.
+     */
+    @Transactional
+    public void revokeUser(Long userId) {
+        // iat has second precision; round up so a token issued earlier in this second is covered too
+        long notBefore = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        applyUser(userId, notBefore);
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .userId(userId)
+                .notBefore(notBefore)
+                .expiresAt(notBefore + jwtService.getExpirationMillis())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.poll-interval-ms:2000}")
+    public void poll() {
+        try {
+            List<TokenRevocation> revocations = tokenRevocationRepository
+                    .findByIdGreaterThanAndExpiresAtGreaterThanOrderByIdAsc(
+                            Math.max(lastSeenId - pollOverlap, 0), System.currentTimeMillis());
+
+            for (TokenRevocation revocation : revocations) {
+                if (revocation.getJti() != null) {
+                    applyToken(revocation.getJti(), revocation.getExpiresAt());
+                }
+                if (revocation.getUserId() != null && revocation.getNotBefore() != null) {
+                    applyUser(revocation.getUserId(), revocation.getNotBefore());
+                }
+                lastSeenId = Math.max(lastSeenId, revocation.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to poll token revocations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        notBeforeByUser.values().removeIf(notBefore -> notBefore + jwtService.getExpirationMillis() <= now);
+
+        // Bloom filters can't delete, rebuild from what is still revoked
+        BloomFilter rebuilt = new BloomFilter(bloomBits, bloomHashes);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // A token revoked during the rebuild is in the exact set but may be missing from the new filter
+        revokedTokens.keySet().forEach(rebuilt::put);
+
+        int deleted = tokenRevocationRepository.deleteExpired(now);
+        log.debug("Purged {} expired token revocations", deleted);
+    }
+
+    public int getRevokedTokenCount() {
+        return revokedTokens.size();
+    }
+
+    private void applyToken(String jti, long expiresAtMillis) {
+        revokedTokens.put(jti, expiresAtMillis);
+        bloomFilter.put(jti);
+    }
+
+    private void applyUser(Long userId, long notBefore) {
+        notBeforeByUser.merge(userId, notBefore, Math::max);
+    }
+
+    static class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bits;
+        private final int hashes;
+
+        BloomFilter(int bits, int hashes) {
+            this.words = new AtomicLongArray((bits + 63) / 64);
+            this.bits = words.length() * 64;
+            this.hashes = hashes;
+        }
+
+        void put(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+                long mask = 1L << (bit & 63);
+                int index = bit >>> 6;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+                if ((words.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a followed by a murmur3 finalizer
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
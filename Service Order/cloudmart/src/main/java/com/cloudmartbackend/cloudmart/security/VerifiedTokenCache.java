@@ -0,0 +1,134 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Principals of tokens that already passed signature verification, keyed by a SHA-256 digest
+ * of the token so raw tokens are never held in memory. Entries never outlive the token's exp,
+ * and every hit is checked against the {@link TokenRevocationList}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerifiedTokenCache {
+
+    private static final String REQUEST_ATTRIBUTE = VerifiedTokenCache.class.getName() + ".principal";
+
+    private final TokenRevocationList tokenRevocationList;
+
+    @Value("${app.security.token-cache.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    @Value("${app.security.token-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Same as {@link #get(String)}, but looked up once per request: the rate limit filter and
+     * the JWT filter both need the principal.
+     */
+    public CloudmartPrincipal get(HttpServletRequest request, String token) {
+        Object memoized = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (memoized instanceof CloudmartPrincipal principal) {
+            return principal;
+        }
+
+        CloudmartPrincipal principal = get(token);
+        if (principal != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, principal);
+        }
+        return principal;
+    }
+
+    public CloudmartPrincipal get(String token) {
+        CachedToken cached = tokens.get(digest(token));
+
+        if (cached == null || cached.expiresAtMillis <= System.currentTimeMillis()
+                || tokenRevocationList.isRevoked(cached.principal.getUserId(), cached.tokenId, cached.issuedAtMillis)) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return cached.principal;
+    }
+
+    public void put(String token, CloudmartPrincipal principal, Claims claims) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(now + ttlSeconds * 1000, claims.getExpiration().getTime());
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (tokens.size() >= maxSize) {
+            evictExpired();
+            if (tokens.size() >= maxSize) {
+                log.debug("Verified token cache full ({} entries), clearing", tokens.size());
+                tokens.clear();
+            }
+        }
+
+        tokens.put(digest(token), new CachedToken(principal, claims.getId(), claims.getIssuedAt().getTime(), expiresAt));
+    }
+
+    /**
+     * Drop cached principals for the user without revoking their tokens.
+     */
+    public void evictUser(Long userId) {
+        tokens.values().removeIf(cached -> cached.principal.getUserId().equals(userId));
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(cached -> cached.expiresAtMillis <= now);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedToken {
+        private final CloudmartPrincipal principal;
+        private final String tokenId;
+        private final long issuedAtMillis;
+        private final long expiresAtMillis;
+    }
+}
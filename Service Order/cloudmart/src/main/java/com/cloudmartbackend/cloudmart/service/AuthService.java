@@ -4,20 +4,26 @@ package com.cloudmartbackend.cloudmart.service;
 import com.cloudmart.dto.request.RegisterRequest;
 import com.cloudmartbackend.cloudmart.domain.entity.User;
 import com.cloudmartbackend.cloudmart.dto.request.LoginRequest;
+import com.cloudmartbackend.cloudmart.dto.request.RefreshTokenRequest;
 import com.cloudmartbackend.cloudmart.dto.response.AuthResponse;
 import com.cloudmartbackend.cloudmart.dto.response.UserResponse;
 import com.cloudmartbackend.cloudmart.exception.BadRequestException;
+import com.cloudmartbackend.cloudmart.exception.ServiceUnavailableException;
 import com.cloudmartbackend.cloudmart.repository.UserRepository;
 import com.cloudmartbackend.cloudmart.security.JwtService;
+import com.cloudmartbackend.cloudmart.security.PasswordHashingExecutor;
+import com.cloudmartbackend.cloudmart.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,11 +32,20 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashing;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
 
-    @Transactional
+    private String userNotFoundEncodedPassword;
+
+    @PostConstruct
+    void initUserNotFoundPassword() {
+        userNotFoundEncodedPassword = passwordEncoder.encode("userNotFoundPassword");
+    }
+
+    // Not transactional: the hash is computed without holding a pooled connection
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering new user with email: {}", request.getEmail());
 
@@ -42,7 +57,7 @@ public class AuthService {
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashing.encode(request.getPassword()))
                 .phone(request.getPhone())
                 .address(request.getAddress())
                 .role(User.UserRole.CUSTOMER)
@@ -51,39 +66,109 @@ public class AuthService {
 
         User savedUser = userRepository.save(user);
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getEmail());
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(savedUser);
 
         log.info("User registered successfully: {}", savedUser.getEmail());
 
-        return AuthResponse.builder()
-                .token(token)
-                .type("Bearer")
-                .user(UserResponse.fromEntity(savedUser))
-                .build();
+        return buildResponse(savedUser, token);
     }
 
-    @Transactional(readOnly = true)
+    // Not transactional, for the same reason as register
     public AuthResponse login(LoginRequest request) {
         log.info("User login attempt: {}", request.getEmail());
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            AuthResponse response = authenticate(request);
+            outcome = "success";
+            return response;
+        } catch (BadCredentialsException | LockedException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (ServiceUnavailableException e) {
+            outcome = "overloaded";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("cloudmart.auth.login", "outcome", outcome));
+        }
+    }
+
+    private AuthResponse authenticate(LoginRequest request) {
+        // Same checks as DaoAuthenticationProvider, on a single lookup of the user
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+
+        if (user == null) {
+            // Keep the response time of unknown emails close to a wrong password
+            passwordHashing.matches(request.getPassword(), userNotFoundEncodedPassword);
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        if (user.getStatus() != User.UserStatus.ACTIVE) {
+            throw new LockedException("User account is locked");
+        }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Invalid credentials"));
+        if (!passwordHashing.matches(request.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String token = jwtService.generateToken(userDetails);
+        // Stored with an older work factor, rehash while we have the raw password
+        if (passwordHashing.upgradeEncoding(user.getPassword())) {
+            try {
+                user.setPassword(passwordHashing.encode(request.getPassword()));
+                user = userRepository.save(user);
+                log.info("Password rehashed for user: {}", user.getId());
+            } catch (ServiceUnavailableException e) {
+                log.debug("Skipping password rehash for user {}, hashing pool busy", user.getId());
+            }
+        }
+
+        String token = jwtService.generateToken(user);
 
         log.info("User logged in successfully: {}", user.getEmail());
 
+        return buildResponse(user, token);
+    }
+
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        User user = rotation.getUser();
+
+        return AuthResponse.builder()
+                .token(jwtService.generateToken(user))
+                .refreshToken(rotation.getRefreshToken())
+                .expiresIn(jwtService.getExpirationMillis() / 1000)
+                .type("Bearer")
+                .user(UserResponse.fromEntity(user))
+                .build();
+    }
+
+    /**
+     * Revokes the refresh token family and, if given, the access token itself.
+     */
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtService.extractAllClaims(accessToken);
+                if (claims.getId() != null) {
+                    tokenRevocationList.revokeToken(claims.getId(), claims.getExpiration().getTime());
+                }
+            } catch (JwtException e) {
+                // Invalid or expired, nothing left to revoke
+                log.debug("Ignoring invalid access token on logout: {}", e.getMessage());
+            }
+        }
+    }
+
+    private AuthResponse buildResponse(User user, String token) {
         return AuthResponse.builder()
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user))
+                .expiresIn(jwtService.getExpirationMillis() / 1000)
                 .type("Bearer")
                 .user(UserResponse.fromEntity(user))
                 .build();
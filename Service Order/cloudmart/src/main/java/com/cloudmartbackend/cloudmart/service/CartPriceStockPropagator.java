@@ -0,0 +1,89 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes committed price and stock changes into the carts that hold the product.
+ * Changes are collected per cart and applied in bounded batches on a fixed delay, so a burst of
+ * orders for one product patches each affected cart once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartPriceStockPropagator {
+
+    private final CartProductIndex cartProductIndex;
+    private final ProductCache productCache;
+    private final CartService cartService;
+
+    @Value("${app.cart.propagation.batch-size:100}")
+    private int batchSize;
+
+    private final Set<Long> changedProducts = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Long>> pendingCarts = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productCache.evict(event.getProductId());
+        changedProducts.add(event.getProductId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.propagation.interval-ms:1000}")
+    public void propagate() {
+        for (Long productId : changedProducts) {
+            if (changedProducts.remove(productId)) {
+                for (String userId : cartProductIndex.getUserIds(productId)) {
+                    pendingCarts.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(productId);
+                }
+            }
+        }
+
+        if (pendingCarts.isEmpty()) {
+            return;
+        }
+
+        // At most one batch per run; the rest waits for the next run
+        Map<String, Set<Long>> batch = new HashMap<>();
+        for (String userId : pendingCarts.keySet()) {
+            if (batch.size() >= batchSize) {
+                break;
+            }
+            Set<Long> productIds = pendingCarts.remove(userId);
+            if (productIds != null) {
+                batch.put(userId, productIds);
+            }
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        batch.values().forEach(productIds::addAll);
+        Map<Long, ProductCache.ProductSnapshot> products = productCache.getAll(productIds);
+
+        int patched = 0;
+        for (Map.Entry<String, Set<Long>> entry : batch.entrySet()) {
+            try {
+                cartService.applyProductChanges(entry.getKey(), entry.getValue(), products);
+                patched++;
+            } catch (Exception e) {
+                log.warn("Failed to patch cart for user: {}", entry.getKey(), e);
+            }
+        }
+
+        log.debug("Patched {} carts for {} changed products, {} carts pending", patched, productIds.size(), pendingCarts.size());
+    }
+
+    public int getPendingCount() {
+        return pendingCarts.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from productId to the users whose carts contain it.
+ *
+ * Maintained on every cart load and save, so it covers the carts this instance has seen
+ * since startup. It only speeds up propagation: every cart load refreshes price and stock
+ * from ProductCache, which also covers carts this instance has never indexed.
+ */
+@Component
+@Slf4j
+public class CartProductIndex {
+
+    @Value("${app.cart.index.max-users:100000}")
+    private int maxUsers = 100000;
+
+    private final Map<Long, Set<String>> usersByProduct = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> productsByUser = new ConcurrentHashMap<>();
+
+    public void update(Cart cart) {
+        String userId = cart.getUserId();
+        Set<Long> current = new HashSet<>();
+        if (cart.getItems() != null) {
+            for (CartItem item : cart.getItems()) {
+                current.add(item.getProductId());
+            }
+        }
+
+        if (!current.isEmpty() && !productsByUser.containsKey(userId) && productsByUser.size() >= maxUsers) {
+            log.debug("Cart product index full ({} users), not indexing user: {}", maxUsers, userId);
+            return;
+        }
+
+        // compute() serializes updates for the same user
+        productsByUser.compute(userId, (id, previous) -> {
+            if (previous != null) {
+                for (Long productId : previous) {
+                    if (!current.contains(productId)) {
+                        unlink(productId, userId);
+                    }
+                }
+            }
+            for (Long productId : current) {
+                if (previous == null || !previous.contains(productId)) {
+                    usersByProduct.computeIfAbsent(productId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+                }
+            }
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    public void remove(String userId) {
+        productsByUser.computeIfPresent(userId, (id, previous) -> {
+            for (Long productId : previous) {
+                unlink(productId, userId);
+            }
+            return null;
+        });
+    }
+
+    public List<String> getUserIds(Long productId) {
+        Set<String> userIds = usersByProduct.get(productId);
+        return userIds != null ? List.copyOf(userIds) : List.of();
+    }
+
+    public int getUserCount() {
+        return productsByUser.size();
+    }
+
+    private void unlink(Long productId, String userId) {
+        usersByProduct.computeIfPresent(productId, (key, userIds) -> {
+            userIds.remove(userId);
+            return userIds.isEmpty() ? null : userIds;
+        });
+    }
+}
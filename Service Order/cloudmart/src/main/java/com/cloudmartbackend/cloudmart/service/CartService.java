@@ -7,39 +7,57 @@ import com.cloudmartbackend.cloudmart.dto.request.AddToCartRequest;
 import com.cloudmartbackend.cloudmart.dto.response.CartResponse;
 import com.cloudmartbackend.cloudmart.exception.BadRequestException;
 import com.cloudmartbackend.cloudmart.exception.ResourceNotFoundException;
+import com.cloudmartbackend.cloudmart.repository.CartStore;
 import com.cloudmartbackend.cloudmart.repository.ProductRepository;
 import com.cloudmartbackend.cloudmart.security.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CartService {
 
-    private final DynamoDbTable<Cart> cartTable;
+    private final CartStore cartStore;
     private final ProductRepository productRepository;
     private final SecurityUtils securityUtils;
+    private final ProductCache productCache;
+    private final CartProductIndex cartProductIndex;
+
+    @Value("${aws.dynamodb.cart-ttl-days:30}")
+    private long cartTtlDays;
+
+    // Rapid mutations (e.g. quantity steppers) within this window become one store write
+    @Value("${aws.dynamodb.write-behind.window-ms:200}")
+    private long writeBehindWindowMs;
+
+    private CartWriteBuffer writeBuffer;
+
+    @PostConstruct
+    void initWriteBuffer() {
+        writeBuffer = new CartWriteBuffer(this::loadCart, this::saveCart, writeBehindWindowMs);
+    }
+
+    @PreDestroy
+    void flushWriteBuffer() {
+        writeBuffer.close();
+    }
 
     public CartResponse getCart() {
         String userId = String.valueOf(securityUtils.getCurrentUserId());
-        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
 
-        if (cart == null) {
-            cart = Cart.builder()
-                    .userId(userId)
-                    .items(new ArrayList<>())
-                    .updatedAt(Instant.now())
-                    .build();
-        }
-
-        return CartResponse.fromEntity(cart);
+        return writeBuffer.read(userId, cart -> CartResponse.fromEntity(cart != null ? cart : emptyCart(userId)));
     }
 
     public CartResponse addToCart(AddToCartRequest request) {
@@ -56,33 +74,28 @@ public class CartService {
             throw new BadRequestException("Insufficient stock");
         }
 
-        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
+        CartResponse response = writeBuffer.write(userId, true, cart -> {
+            if (cart == null) {
+                cart = emptyCart(userId);
+            }
 
-        if (cart == null) {
-            cart = Cart.builder()
-                    .userId(userId)
-                    .items(new ArrayList<>())
-                    .updatedAt(Instant.now())
+            CartItem cartItem = CartItem.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .price(product.getPrice())
+                    .quantity(request.getQuantity())
+                    .imageUrl(product.getImageUrl())
+                    .availableStock(product.getStock())
                     .build();
-        }
-
-        CartItem cartItem = CartItem.builder()
-                .productId(product.getId())
-                .productName(product.getName())
-                .price(product.getPrice())
-                .quantity(request.getQuantity())
-                .imageUrl(product.getImageUrl())
-                .availableStock(product.getStock())
-                .build();
-
-        cartItem.calculateSubtotal();
-        cart.addItem(cartItem);
 
-        cartTable.putItem(cart);
+            cartItem.calculateSubtotal();
+            cart.addItem(cartItem);
+            return cart;
+        }, CartResponse::fromEntity);
 
         log.info("Item added to cart for user: {}", userId);
 
-        return CartResponse.fromEntity(cart);
+        return response;
     }
 
     public CartResponse updateCartItemQuantity(Long productId, int quantity) {
@@ -91,102 +104,184 @@ public class CartService {
         }
 
         String userId = String.valueOf(securityUtils.getCurrentUserId());
-        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
 
-        if (cart == null) {
-            throw new ResourceNotFoundException("Cart is empty");
+        // Stock is re-validated against the database when the order is created
+        ProductCache.ProductSnapshot product = productCache.get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found");
         }
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-
         if (product.getStock() < quantity) {
             throw new BadRequestException("Insufficient stock");
         }
 
-        boolean found = false;
-        for (CartItem item : cart.getItems()) {
-            if (item.getProductId().equals(productId)) {
-                item.setQuantity(quantity);
-                item.setAvailableStock(product.getStock());
-                item.calculateSubtotal();
-                found = true;
-                break;
+        CartResponse response = writeBuffer.write(userId, true, cart -> {
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart is empty");
             }
-        }
 
-        if (!found) {
-            throw new ResourceNotFoundException("Product not found in cart");
-        }
+            CartItem item = cart.getItems().stream()
+                    .filter(existing -> existing.getProductId().equals(productId))
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found in cart"));
 
-        cart.setUpdatedAt(Instant.now());
-        cartTable.putItem(cart);
+            item.setQuantity(quantity);
+            item.setAvailableStock(product.getStock());
+            item.calculateSubtotal();
+            cart.setUpdatedAt(Instant.now());
+            return cart;
+        }, CartResponse::fromEntity);
 
-        log.info("Cart item updated for user: {}", userId);
+        log.debug("Cart item updated for user: {}", userId);
 
-        return CartResponse.fromEntity(cart);
+        return response;
     }
 
     public CartResponse removeFromCart(Long productId) {
         String userId = String.valueOf(securityUtils.getCurrentUserId());
-        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
 
-        if (cart == null) {
-            throw new ResourceNotFoundException("Cart is empty");
-        }
+        CartResponse response = writeBuffer.write(userId, true, cart -> {
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart is empty");
+            }
 
-        cart.removeItem(productId);
-        cartTable.putItem(cart);
+            cart.removeItem(productId);
+            return cart;
+        }, CartResponse::fromEntity);
 
         log.info("Item removed from cart for user: {}", userId);
 
-        return CartResponse.fromEntity(cart);
+        return response;
     }
 
     public void clearCart() {
         String userId = String.valueOf(securityUtils.getCurrentUserId());
-        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
 
-        if (cart != null) {
-            cart.clear();
-            cartTable.putItem(cart);
+        // Checkout: written through immediately, replacing anything still buffered
+        boolean cleared = writeBuffer.write(userId, false, cart -> {
+            if (cart != null) {
+                cart.clear();
+            }
+            return cart;
+        }, cart -> cart != null);
+
+        if (cleared) {
             log.info("Cart cleared for user: {}", userId);
         }
     }
 
     public void syncCartWithInventory() {
         String userId = String.valueOf(securityUtils.getCurrentUserId());
-        Cart cart = cartTable.getItem(Key.builder().partitionValue(userId).build());
 
-        if (cart == null || cart.getItems().isEmpty()) {
-            return;
-        }
+        boolean synced = writeBuffer.write(userId, false, cart -> {
+            if (cart == null || cart.getItems().isEmpty()) {
+                return cart;
+            }
 
-        boolean updated = false;
+            List<CartItem> unavailable = new ArrayList<>();
 
-        for (CartItem item : cart.getItems()) {
-            Product product = productRepository.findById(item.getProductId()).orElse(null);
+            for (CartItem item : cart.getItems()) {
+                Product product = productRepository.findById(item.getProductId()).orElse(null);
 
-            if (product == null || product.getStatus() != Product.ProductStatus.ACTIVE) {
-                cart.removeItem(item.getProductId());
-                updated = true;
-                continue;
-            }
+                if (product == null || product.getStatus() != Product.ProductStatus.ACTIVE) {
+                    unavailable.add(item);
+                    continue;
+                }
 
-            if (item.getQuantity() > product.getStock()) {
-                item.setQuantity(product.getStock());
+                if (item.getQuantity() > product.getStock()) {
+                    item.setQuantity(product.getStock());
+                }
+
+                item.setAvailableStock(product.getStock());
+                item.setPrice(product.getPrice());
                 item.calculateSubtotal();
-                updated = true;
             }
 
-            item.setAvailableStock(product.getStock());
-            item.setPrice(product.getPrice());
-        }
-
-        if (updated) {
+            cart.getItems().removeAll(unavailable);
             cart.setUpdatedAt(Instant.now());
-            cartTable.putItem(cart);
+            return cart;
+        }, cart -> cart != null && !cart.getItems().isEmpty());
+
+        if (synced) {
             log.info("Cart synced with inventory for user: {}", userId);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Refresh price and stock of the given products in a user's cart. Called in the background
+     * after product changes commit; quantities are left alone and re-validated at checkout.
+     */
+    public void applyProductChanges(String userId, Collection<Long> productIds,
+                                    Map<Long, ProductCache.ProductSnapshot> products) {
+        writeBuffer.write(userId, true, cart -> {
+            if (cart == null) {
+                return null;
+            }
+
+            for (CartItem item : cart.getItems()) {
+                if (!productIds.contains(item.getProductId())) {
+                    continue;
+                }
+
+                applySnapshot(item, products.get(item.getProductId()));
+            }
+
+            return cart;
+        }, cart -> null);
+    }
+
+    private Cart emptyCart(String userId) {
+        return Cart.builder()
+                .userId(userId)
+                .items(new ArrayList<>())
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    private Cart loadCart(String userId) {
+        Cart cart = cartStore.load(userId);
+
+        if (cart != null) {
+            // The stored snapshot may predate changes handled on other instances (and compact carts
+            // only store id, quantity and price), so every load takes the current product fields
+            refresh(cart.getItems());
+            cartProductIndex.update(cart);
+        } else {
+            cartProductIndex.remove(userId);
+        }
+
+        return cart;
+    }
+
+    private void saveCart(Cart cart) {
+        cart.refreshExpiry(Duration.ofDays(cartTtlDays));
+        cartStore.save(cart);
+        cartProductIndex.update(cart);
+    }
+
+    private void refresh(List<CartItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ProductCache.ProductSnapshot> products = productCache.getAll(
+                items.stream().map(CartItem::getProductId).toList());
+
+        for (CartItem item : items) {
+            applySnapshot(item, products.get(item.getProductId()));
+        }
+    }
+
+    private void applySnapshot(CartItem item, ProductCache.ProductSnapshot product) {
+        if (product == null || product.getStatus() != Product.ProductStatus.ACTIVE) {
+            item.setAvailableStock(0);
+            return;
+        }
+
+        item.setProductName(product.getName());
+        item.setImageUrl(product.getImageUrl());
+        item.setPrice(product.getPrice());
+        item.setAvailableStock(product.getStock());
+        item.calculateSubtotal();
+    }
+}
@@ -0,0 +1,232 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Per-user write-behind buffer for carts.
+ *
+ * Every read-modify-write for a user runs under that user's lock against the buffered cart,
+ * so no update is lost. Coalesced writes are flushed once per window instead of once per call.
+ *
+ * The lock is per JVM and flushes overwrite the whole stored cart, so this only holds while a
+ * user's cart requests reach one instance (sticky routing). Two instances buffering the same
+ * cart each write their own copy and the last flush wins; set the window to 0 where requests
+ * are not routed that way, which narrows the gap to the store's own read-modify-write.
+ */
+@Slf4j
+public class CartWriteBuffer implements AutoCloseable {
+
+    private final Function<String, Cart> loader;
+    private final Consumer<Cart> writer;
+    private final long windowMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder mutations = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    public CartWriteBuffer(Function<String, Cart> loader, Consumer<Cart> writer, long windowMillis) {
+        this.loader = loader;
+        this.writer = writer;
+        this.windowMillis = windowMillis;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Read the buffered cart if there is one, otherwise the stored cart. The cart may be null.
+     */
+    public <T> T read(String userId, Function<Cart, T> reader) {
+        while (true) {
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                return reader.apply(loader.apply(userId));
+            }
+
+            entry.lock.lock();
+            try {
+                if (!entry.retired) {
+                    // A writer may have created the entry without having loaded it yet
+                    if (!entry.loaded) {
+                        entry.cart = loader.apply(userId);
+                        entry.loaded = true;
+                    }
+                    return reader.apply(entry.cart);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Apply a mutation to the user's cart. The mutation receives the current cart (possibly null)
+     * and returns the cart to store. Mutations must validate before changing the cart,
+     * since a mutation that throws is not marked dirty.
+     * With coalesce=false the cart is written before this method returns.
+     */
+    public <T> T write(String userId, boolean coalesce, Function<Cart, Cart> mutation, Function<Cart, T> view) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(userId, id -> new Entry());
+
+            entry.lock.lock();
+            try {
+                if (entry.retired) {
+                    continue;
+                }
+
+                if (!entry.loaded) {
+                    entry.cart = loader.apply(userId);
+                    entry.loaded = true;
+                }
+
+                Cart updated = mutation.apply(entry.cart);
+                entry.cart = updated;
+                entry.dirty = true;
+                mutations.increment();
+
+                if (!coalesce || windowMillis <= 0) {
+                    try {
+                        flushLocked(userId, entry);
+                    } catch (RuntimeException e) {
+                        // Keep the change buffered and retry in the background
+                        scheduleFlush(userId, entry);
+                        throw e;
+                    }
+                } else if (entry.flushTask == null) {
+                    scheduleFlush(userId, entry);
+                }
+
+                return view.apply(updated);
+
+            } finally {
+                // Nothing pending (e.g. the first mutation failed), don't keep the entry around
+                if (!entry.dirty && entry.flushTask == null) {
+                    entry.retired = true;
+                }
+                if (entry.retired) {
+                    entries.remove(userId, entry);
+                }
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    public void flush(String userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return;
+        }
+
+        entry.lock.lock();
+        try {
+            if (!entry.retired) {
+                flushLocked(userId, entry);
+            }
+        } catch (RuntimeException e) {
+            scheduleFlush(userId, entry);
+            throw e;
+        } finally {
+            if (entry.retired) {
+                entries.remove(userId, entry);
+            }
+            entry.lock.unlock();
+        }
+    }
+
+    public void flushAll() {
+        for (String userId : entries.keySet()) {
+            try {
+                flush(userId);
+            } catch (Exception e) {
+                log.error("Failed to flush buffered cart for user: {}", userId, e);
+            }
+        }
+    }
+
+    public long getMutationCount() {
+        return mutations.sum();
+    }
+
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    public int getPendingCount() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        flushAll();
+        scheduler.shutdownNow();
+    }
+
+    private void flushScheduled(String userId, Entry entry) {
+        entry.lock.lock();
+        try {
+            entry.flushTask = null;
+            if (!entry.retired) {
+                flushLocked(userId, entry);
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush buffered cart for user: {}, retrying", userId, e);
+            scheduleFlush(userId, entry);
+        } finally {
+            if (entry.retired) {
+                entries.remove(userId, entry);
+            }
+            entry.lock.unlock();
+        }
+    }
+
+    // Caller holds entry.lock
+    private void scheduleFlush(String userId, Entry entry) {
+        if (!scheduler.isShutdown()) {
+            long delay = Math.max(windowMillis, 1);
+            entry.flushTask = scheduler.schedule(() -> flushScheduled(userId, entry), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Caller holds entry.lock. On failure the entry stays dirty and buffered.
+    private void flushLocked(String userId, Entry entry) {
+        if (entry.flushTask != null) {
+            entry.flushTask.cancel(false);
+            entry.flushTask = null;
+        }
+
+        if (entry.dirty && entry.cart != null) {
+            writer.accept(entry.cart);
+            writes.increment();
+        }
+
+        entry.dirty = false;
+        entry.retired = true;
+        log.debug("Flushed buffered cart for user: {}", userId);
+    }
+
+    private static class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Cart cart;
+        private boolean loaded;
+        private boolean dirty;
+        private boolean retired;
+        private ScheduledFuture<?> flushTask;
+    }
+}
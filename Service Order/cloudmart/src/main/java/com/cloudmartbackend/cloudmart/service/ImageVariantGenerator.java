@@ -0,0 +1,175 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decodes an image once and produces downscaled variants of it. Stateless and thread-safe.
+ *
+ * Images are never upscaled; a variant wider than the original is encoded at the original size.
+ * Images with transparency are written as PNG, everything else as JPEG.
+ *
+ * The declared dimensions are read from the header before decoding, since a small compressed
+ * file can expand to gigabytes of pixels; images above maxPixels are rejected.
+ */
+public class ImageVariantGenerator {
+
+    private final List<VariantSpec> specs;
+    private final float jpegQuality;
+    private final long maxPixels;
+
+    static {
+        // Decode and encode in memory instead of through temp files
+        ImageIO.setUseCache(false);
+    }
+
+    public ImageVariantGenerator(List<VariantSpec> specs, float jpegQuality, long maxPixels) {
+        this.specs = List.copyOf(specs);
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * @throws UnsupportedImageException if the bytes can't be decoded (e.g. WebP without a plugin)
+     *                                   or declare more than maxPixels pixels
+     */
+    public List<Variant> generate(byte[] original) throws IOException {
+        BufferedImage source = decode(original);
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        List<Variant> variants = new ArrayList<>(specs.size());
+
+        // Largest first, so each variant is scaled down from the previous one instead of the original
+        List<VariantSpec> bySize = new ArrayList<>(specs);
+        bySize.sort((a, b) -> Integer.compare(b.getMaxWidth(), a.getMaxWidth()));
+
+        BufferedImage previous = source;
+        for (VariantSpec spec : bySize) {
+            BufferedImage scaled = scaleToWidth(previous, spec.getMaxWidth(), alpha);
+            previous = scaled;
+
+            byte[] encoded = alpha ? encodePng(scaled) : encodeJpeg(scaled);
+            variants.add(new Variant(spec.getName(), scaled.getWidth(), scaled.getHeight(),
+                    encoded, alpha ? "image/png" : "image/jpeg", alpha ? "png" : "jpg"));
+        }
+
+        return variants;
+    }
+
+    private BufferedImage decode(byte[] original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new UnsupportedImageException("No decoder for image");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new UnsupportedImageException("Image is " + reader.getWidth(0) + "x" + reader.getHeight(0)
+                            + ", more than " + maxPixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage image, int maxWidth, boolean alpha) {
+        int targetWidth = Math.min(maxWidth, image.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+
+        // Halve in steps while far above the target; one bilinear pass over a large ratio aliases badly
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = draw(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2), alpha);
+        }
+
+        if (current.getWidth() != targetWidth || current.getType() != imageType(alpha)) {
+            current = draw(current, targetWidth, targetHeight, alpha);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height, imageType(alpha));
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static int imageType(boolean alpha) {
+        return alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class VariantSpec {
+        private final String name;
+        private final int maxWidth;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Variant {
+        private final String name;
+        private final int width;
+        private final int height;
+        private final byte[] content;
+        private final String contentType;
+        private final String extension;
+    }
+
+    public static class UnsupportedImageException extends IOException {
+        public UnsupportedImageException(String message) {
+            super(message);
+        }
+    }
+}
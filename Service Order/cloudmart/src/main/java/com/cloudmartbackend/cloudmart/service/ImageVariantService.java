@@ -0,0 +1,187 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the thumbnail, card and detail sizes of a product image after its upload commits.
+ *
+ * Decoding and resizing is CPU-bound, so it runs on a small bounded pool off the request path.
+ * Failed attempts are retried with backoff; when the queue is full the job is dropped and the
+ * product keeps serving the original image.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantService {
+
+    static final String THUMBNAIL = "thumbnail";
+    static final String CARD = "card";
+    static final String DETAIL = "detail";
+
+    private final S3Service s3Service;
+    private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.image.variants.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.image.variants.threads:2}")
+    private int threads = 2;
+
+    @Value("${app.image.variants.queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    @Value("${app.image.variants.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${app.image.variants.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    @Value("${app.image.variants.thumbnail-width:150}")
+    private int thumbnailWidth = 150;
+
+    @Value("${app.image.variants.card-width:400}")
+    private int cardWidth = 400;
+
+    @Value("${app.image.variants.detail-width:1000}")
+    private int detailWidth = 1000;
+
+    @Value("${app.image.variants.jpeg-quality:0.85}")
+    private float jpegQuality = 0.85f;
+
+    // Decoded as 4 bytes per pixel, per worker thread
+    @Value("${app.image.variants.max-pixels:40000000}")
+    private long maxPixels = 40000000;
+
+    private ImageVariantGenerator generator;
+    private ThreadPoolExecutor executor;
+    private ScheduledThreadPoolExecutor retryScheduler;
+    private Timer generateTimer;
+    private Counter processed;
+    private Counter failed;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        generator = new ImageVariantGenerator(List.of(
+                new ImageVariantGenerator.VariantSpec(THUMBNAIL, thumbnailWidth),
+                new ImageVariantGenerator.VariantSpec(CARD, cardWidth),
+                new ImageVariantGenerator.VariantSpec(DETAIL, detailWidth)
+        ), jpegQuality, maxPixels);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Only holds retries until their backoff is over, the work itself goes back to the executor
+        retryScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        generateTimer = Timer.builder("cloudmart.image.variants.generate").register(meterRegistry);
+        processed = Counter.builder("cloudmart.image.variants.processed").register(meterRegistry);
+        failed = Counter.builder("cloudmart.image.variants.failed").register(meterRegistry);
+        dropped = Counter.builder("cloudmart.image.variants.dropped").register(meterRegistry);
+        Gauge.builder("cloudmart.image.variants.queue", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onImageUploaded(ProductImageUploadedEvent event) {
+        if (enabled) {
+            submit(event.getProductId(), event.getImageUrl(), 1);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void submit(Long productId, String imageUrl, int attempt) {
+        try {
+            executor.execute(() -> process(productId, imageUrl, attempt));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Image variant queue full, product {} keeps its original image", productId);
+        }
+    }
+
+    private void process(Long productId, String imageUrl, int attempt) {
+        Map<String, String> urls = new HashMap<>();
+        try {
+            byte[] original = s3Service.downloadProductImage(imageUrl);
+            List<ImageVariantGenerator.Variant> variants = generateTimer.recordCallable(() -> generator.generate(original));
+
+            for (ImageVariantGenerator.Variant variant : variants) {
+                urls.put(variant.getName(), s3Service.uploadImageVariant(imageUrl, variant.getName(),
+                        variant.getExtension(), variant.getContentType(), variant.getContent()));
+            }
+
+            int updated = productRepository.updateImageVariants(productId, imageUrl,
+                    urls.get(THUMBNAIL), urls.get(CARD), urls.get(DETAIL));
+
+            if (updated == 0) {
+                // The image was replaced (or the product removed) while this ran
+                urls.values().forEach(s3Service::deleteProductImage);
+                log.debug("Discarded image variants for product {}, image changed", productId);
+                return;
+            }
+
+            processed.increment();
+            log.info("Generated {} image variants for product {}", variants.size(), productId);
+
+        } catch (ImageVariantGenerator.UnsupportedImageException e) {
+            // Retrying won't help; e.g. WebP, which ImageIO can't decode without a plugin, or too many pixels
+            failed.increment();
+            log.info("Skipping image variants for product {}: {}", productId, e.getMessage());
+        } catch (Exception e) {
+            // Drop the references taken so far; the next attempt takes its own
+            urls.values().forEach(s3Service::deleteProductImage);
+
+            if (attempt < maxAttempts && !retryScheduler.isShutdown()) {
+                long delay = retryBackoffMs << (attempt - 1);
+                log.warn("Image variants for product {} failed (attempt {}), retrying in {} ms", productId, attempt, delay, e);
+                retryScheduler.schedule(() -> submit(productId, imageUrl, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } else {
+                failed.increment();
+                log.error("Image variants for product {} failed after {} attempts", productId, attempt, e);
+            }
+        }
+    }
+}
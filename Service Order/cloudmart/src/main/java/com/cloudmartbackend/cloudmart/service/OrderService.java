@@ -17,6 +17,7 @@ import com.cloudmartbackend.cloudmart.repository.ProductRepository;
 import com.cloudmartbackend.cloudmart.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -38,10 +39,11 @@ public class OrderService {
     private final SqsService sqsService;
     private final CartService cartService;
     private final SecurityUtils securityUtils;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
-        User user = securityUtils.getCurrentUser();
+        User user = securityUtils.getCurrentUserReference();
 
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new BadRequestException("Order must contain at least one item");
@@ -76,6 +78,7 @@ public class OrderService {
             // Decrease stock
             product.decreaseStock(itemRequest.getQuantity());
             productRepository.save(product);
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
 
 
             OrderItem orderItem = OrderItem.builder()
@@ -113,11 +116,8 @@ public class OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
 
-        User currentUser = securityUtils.getCurrentUser();
-
         // User can only see their own orders, admin can see all
-        if (!order.getUser().getId().equals(currentUser.getId())
-                && currentUser.getRole() != User.UserRole.ADMIN) {
+        if (!securityUtils.isCurrentUser(order.getUser().getId()) && !securityUtils.isAdmin()) {
             throw new UnauthorizedException("You don't have permission to view this order");
         }
 
@@ -129,10 +129,7 @@ public class OrderService {
         Order order = orderRepository.findByOrderNumber(orderNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderNumber));
 
-        User currentUser = securityUtils.getCurrentUser();
-
-        if (!order.getUser().getId().equals(currentUser.getId())
-                && currentUser.getRole() != User.UserRole.ADMIN) {
+        if (!securityUtils.isCurrentUser(order.getUser().getId()) && !securityUtils.isAdmin()) {
             throw new UnauthorizedException("You don't have permission to view this order");
         }
 
@@ -141,16 +138,14 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public Page<OrderResponse> getMyOrders(Pageable pageable) {
-        User user = securityUtils.getCurrentUser();
+        User user = securityUtils.getCurrentUserReference();
         return orderRepository.findByUser(user, pageable)
                 .map(OrderResponse::fromEntity);
     }
 
     @Transactional(readOnly = true)
     public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        User currentUser = securityUtils.getCurrentUser();
-
-        if (currentUser.getRole() != User.UserRole.ADMIN) {
+        if (!securityUtils.isAdmin()) {
             throw new UnauthorizedException("Only admins can view all orders");
         }
 
@@ -166,9 +161,7 @@ public class OrderService {
 
     @Transactional
     public OrderResponse updateOrderStatus(Long id, Order.OrderStatus newStatus) {
-        User currentUser = securityUtils.getCurrentUser();
-
-        if (currentUser.getRole() != User.UserRole.ADMIN) {
+        if (!securityUtils.isAdmin()) {
             throw new UnauthorizedException("Only admins can update order status");
         }
 
@@ -190,10 +183,7 @@ public class OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
 
-        User currentUser = securityUtils.getCurrentUser();
-
-        if (!order.getUser().getId().equals(currentUser.getId())
-                && currentUser.getRole() != User.UserRole.ADMIN) {
+        if (!securityUtils.isCurrentUser(order.getUser().getId()) && !securityUtils.isAdmin()) {
             throw new UnauthorizedException("You don't have permission to cancel this order");
         }
 
@@ -207,6 +197,7 @@ public class OrderService {
             Product product = item.getProduct();
             product.increaseStock(item.getQuantity());
             productRepository.save(product);
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
         }
 
         order.setStatus(Order.OrderStatus.CANCELLED);
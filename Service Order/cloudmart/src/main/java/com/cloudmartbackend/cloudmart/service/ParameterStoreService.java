@@ -1,31 +1,100 @@
 package com.cloudmartbackend.cloudmart.service;
 
 
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.ssm.SsmClient;
 import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
 import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
 import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Parameter Store values with a per-entry TTL.
+ *
+ * Entries are refreshed in the background before they expire (refresh-ahead), in batches of
+ * {@value #MAX_NAMES_PER_CALL} names per GetParameters call. Readers always get the cached value,
+ * even while it is being refreshed or if a refresh failed; only a name never seen before is
+ * loaded on the caller's thread.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ParameterStoreService {
 
+    // GetParameters limit
+    static final int MAX_NAMES_PER_CALL = 10;
+
     private final SsmClient ssmClient;
 
     @Value("${aws.parameter-store.enabled}")
     private boolean parameterStoreEnabled;
 
-    private final Map<String, String> parameterCache = new HashMap<>();
+    @Value("${aws.parameter-store.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    // Entries older than this fraction of the TTL are picked up by the next refresh run
+    @Value("${aws.parameter-store.refresh-ahead-ratio:0.8}")
+    private double refreshAheadRatio = 0.8;
+
+    @Value("${aws.parameter-store.preload-path:}")
+    private String preloadPath = "";
+
+    @Value("${aws.parameter-store.preload-names:}")
+    private List<String> preloadNames = List.of();
+
+    private final Map<String, CachedParameter> parameterCache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedParameter>> loading = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void preload() {
+        if (!parameterStoreEnabled) {
+            return;
+        }
+
+        try {
+            if (preloadPath != null && !preloadPath.isBlank()) {
+                GetParametersByPathRequest request = GetParametersByPathRequest.builder()
+                        .path(preloadPath)
+                        .recursive(true)
+                        .withDecryption(true)
+                        .build();
 
+                long now = System.nanoTime();
+                ssmClient.getParametersByPathPaginator(request).stream()
+                        .flatMap(response -> response.parameters().stream())
+                        .forEach(parameter -> parameterCache.put(parameter.name(), new CachedParameter(parameter.value(), now)));
+            }
 
+            if (preloadNames != null && !preloadNames.isEmpty()) {
+                loadBatch(preloadNames);
+            }
+
+            log.info("Preloaded {} parameters from Parameter Store", parameterCache.size());
+        } catch (Exception e) {
+            // Not fatal, parameters are loaded on first use instead
+            log.warn("Failed to preload parameters: {}", e.getMessage());
+        }
+    }
 
     public String getParameter(String parameterName) {
         if (!parameterStoreEnabled) {
@@ -33,33 +102,63 @@ public class ParameterStoreService {
             return null;
         }
 
-        // Check cache first
-        if (parameterCache.containsKey(parameterName)) {
-            return parameterCache.get(parameterName);
+        CachedParameter cached = parameterCache.get(parameterName);
+        if (cached != null) {
+            return cached.value;
         }
 
-        try {
-            GetParameterRequest parameterRequest = GetParameterRequest.builder()
-                    .name(parameterName)
-                    .withDecryption(true)
-                    .build();
-
-            GetParameterResponse parameterResponse = ssmClient.getParameter(parameterRequest);
+        // Concurrent misses for the same name share one GetParameter call
+        CompletableFuture<CachedParameter> future = new CompletableFuture<>();
+        CompletableFuture<CachedParameter> existing = loading.putIfAbsent(parameterName, future);
+        if (existing != null) {
+            try {
+                return existing.join().value;
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
 
-            String value = parameterResponse.parameter().value();
-            parameterCache.put(parameterName, value);
+        try {
+            CachedParameter loaded = loadOne(parameterName);
+            parameterCache.put(parameterName, loaded);
+            future.complete(loaded);
+            return loaded.value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(parameterName, future);
+        }
+    }
 
-            log.info("Parameter retrieved from Parameter Store: {}", parameterName);
+    /**
+     * Several parameters at once; misses are fetched with GetParameters.
+     */
+    public Map<String, String> getParameters(Collection<String> parameterNames) {
+        Map<String, String> result = new HashMap<>();
+        if (!parameterStoreEnabled) {
+            return result;
+        }
 
-            return value;
+        List<String> missing = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(parameterNames)) {
+            CachedParameter cached = parameterCache.get(name);
+            if (cached != null) {
+                result.put(name, cached.value);
+            } else {
+                missing.add(name);
+            }
+        }
 
-        } catch (ParameterNotFoundException e) {
-            log.warn("Parameter not found: {}", parameterName);
-            return null;
-        } catch (Exception e) {
-            log.error("Failed to retrieve parameter: {}", parameterName, e);
-            throw new RuntimeException("Failed to retrieve parameter", e);
+        if (!missing.isEmpty()) {
+            loadBatch(missing);
+            for (String name : missing) {
+                CachedParameter cached = parameterCache.get(name);
+                result.put(name, cached != null ? cached.value : null);
+            }
         }
+
+        return result;
     }
 
     public String getParameter(String parameterName, String defaultValue) {
@@ -88,8 +187,98 @@ public class ParameterStoreService {
         }
     }
 
+    /**
+     * Reloads every entry that is past the refresh-ahead point. Runs off the request path;
+     * on failure the old values stay in place and are retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${aws.parameter-store.refresh-interval-ms:30000}")
+    public void refreshExpiring() {
+        if (!parameterStoreEnabled || parameterCache.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long refreshAfterNanos = (long) (TimeUnit.SECONDS.toNanos(ttlSeconds) * refreshAheadRatio);
+
+        List<String> due = new ArrayList<>();
+        parameterCache.forEach((name, cached) -> {
+            if (now - cached.loadedAtNanos >= refreshAfterNanos) {
+                due.add(name);
+            }
+        });
+
+        if (due.isEmpty()) {
+            return;
+        }
+
+        try {
+            loadBatch(due);
+            log.debug("Refreshed {} parameters", due.size());
+        } catch (Exception e) {
+            long expireNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+            long stale = due.stream()
+                    .map(parameterCache::get)
+                    .filter(cached -> cached != null && now - cached.loadedAtNanos >= expireNanos)
+                    .count();
+            log.warn("Failed to refresh {} parameters ({} past TTL, serving stale values): {}",
+                    due.size(), stale, e.getMessage());
+        }
+    }
+
     public void clearCache() {
         parameterCache.clear();
         log.info("Parameter cache cleared");
     }
-}
\ No newline at end of file
+
+    public int size() {
+        return parameterCache.size();
+    }
+
+    private CachedParameter loadOne(String parameterName) {
+        try {
+            GetParameterRequest parameterRequest = GetParameterRequest.builder()
+                    .name(parameterName)
+                    .withDecryption(true)
+                    .build();
+
+            GetParameterResponse parameterResponse = ssmClient.getParameter(parameterRequest);
+
+            log.info("Parameter retrieved from Parameter Store: {}", parameterName);
+
+            return new CachedParameter(parameterResponse.parameter().value(), System.nanoTime());
+
+        } catch (ParameterNotFoundException e) {
+            // Cached as absent, so a missing optional parameter isn't looked up on every call
+            log.warn("Parameter not found: {}", parameterName);
+            return new CachedParameter(null, System.nanoTime());
+        } catch (Exception e) {
+            log.error("Failed to retrieve parameter: {}", parameterName, e);
+            throw new RuntimeException("Failed to retrieve parameter", e);
+        }
+    }
+
+    private void loadBatch(List<String> names) {
+        for (int start = 0; start < names.size(); start += MAX_NAMES_PER_CALL) {
+            List<String> batch = names.subList(start, Math.min(start + MAX_NAMES_PER_CALL, names.size()));
+
+            GetParametersResponse response = ssmClient.getParameters(GetParametersRequest.builder()
+                    .names(batch)
+                    .withDecryption(true)
+                    .build());
+
+            long now = System.nanoTime();
+            for (Parameter parameter : response.parameters()) {
+                parameterCache.put(parameter.name(), new CachedParameter(parameter.value(), now));
+            }
+            for (String invalid : response.invalidParameters()) {
+                parameterCache.put(invalid, new CachedParameter(null, now));
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedParameter {
+        private final String value;
+        private final long loadedAtNanos;
+    }
+}
@@ -0,0 +1,136 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Product;
+import com.cloudmartbackend.cloudmart.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Short-lived cache of the product fields carts display (name, image, price, stock).
+ * Misses are loaded with a single findAllById query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+
+    @Value("${app.cache.product.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.cache.product.max-size:10000}")
+    private int maxSize;
+
+    private final Map<Long, CachedProduct> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ProductSnapshot get(Long productId) {
+        return getAll(List.of(productId)).get(productId);
+    }
+
+    public Map<Long, ProductSnapshot> getAll(Collection<Long> productIds) {
+        Map<Long, ProductSnapshot> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+
+        for (Long productId : productIds) {
+            CachedProduct cached = cache.get(productId);
+            if (cached != null && cached.expiresAtNanos - now > 0) {
+                result.put(productId, cached.snapshot);
+                hits.increment();
+            } else {
+                missing.add(productId);
+                misses.increment();
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long expiresAt = now + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            for (Product product : productRepository.findAllById(missing)) {
+                ProductSnapshot snapshot = ProductSnapshot.fromEntity(product);
+                result.put(product.getId(), snapshot);
+                put(product.getId(), new CachedProduct(snapshot, expiresAt));
+            }
+        }
+
+        return result;
+    }
+
+    public void evict(Long productId) {
+        cache.remove(productId);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private void put(Long productId, CachedProduct cachedProduct) {
+        if (cache.size() >= maxSize) {
+            // Drop expired entries first, then anything if still over the bound
+            long now = System.nanoTime();
+            cache.values().removeIf(entry -> entry.expiresAtNanos - now <= 0);
+            if (cache.size() >= maxSize) {
+                log.debug("Product cache full ({} entries), clearing", cache.size());
+                cache.clear();
+            }
+        }
+        cache.put(productId, cachedProduct);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ProductSnapshot {
+        private final Long id;
+        private final String name;
+        private final String imageUrl;
+        private final BigDecimal price;
+        private final Integer stock;
+        private final Product.ProductStatus status;
+
+        public static ProductSnapshot fromEntity(Product product) {
+            return new ProductSnapshot(
+                    product.getId(),
+                    product.getName(),
+                    product.getImageUrl(),
+                    product.getPrice(),
+                    product.getStock(),
+                    product.getStatus()
+            );
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedProduct {
+        private final ProductSnapshot snapshot;
+        private final long expiresAtNanos;
+    }
+}
@@ -0,0 +1,14 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a product's price, stock or status may have changed.
+ * Listeners re-read the product; the event only carries the id.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+}
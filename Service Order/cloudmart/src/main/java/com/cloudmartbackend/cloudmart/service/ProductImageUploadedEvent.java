@@ -0,0 +1,15 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a product gets a new original image. Carries the URL so variants generated
+ * for an image that has since been replaced are discarded.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductImageUploadedEvent {
+    private final Long productId;
+    private final String imageUrl;
+}
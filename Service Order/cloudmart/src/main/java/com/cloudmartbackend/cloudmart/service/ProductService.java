@@ -3,7 +3,10 @@ package com.cloudmartbackend.cloudmart.service;
 
 import com.cloudmartbackend.cloudmart.domain.entity.Product;
 import com.cloudmartbackend.cloudmart.domain.entity.User;
+import com.cloudmartbackend.cloudmart.dto.request.ConfirmImageUploadRequest;
+import com.cloudmartbackend.cloudmart.dto.request.ImageUploadUrlRequest;
 import com.cloudmartbackend.cloudmart.dto.request.ProductRequest;
+import com.cloudmartbackend.cloudmart.dto.response.ImageUploadUrlResponse;
 import com.cloudmartbackend.cloudmart.dto.response.ProductResponse;
 import com.cloudmartbackend.cloudmart.exception.ResourceNotFoundException;
 import com.cloudmartbackend.cloudmart.exception.UnauthorizedException;
@@ -11,14 +14,17 @@ import com.cloudmartbackend.cloudmart.repository.ProductRepository;
 import com.cloudmartbackend.cloudmart.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -28,36 +34,44 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final S3Service s3Service;
     private final SecurityUtils securityUtils;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    /**
+     * Not @Transactional: the image goes to S3 before any connection is taken, then a short
+     * transaction inserts the row. If that fails the uploaded image is released again.
+     */
     public ProductResponse createProduct(ProductRequest request, MultipartFile image) {
-        User seller = securityUtils.getCurrentUser();
+        User.UserRole role = securityUtils.getCurrentUserRole();
 
-        if (seller.getRole() != User.UserRole.SELLER && seller.getRole() != User.UserRole.ADMIN) {
+        if (role != User.UserRole.SELLER && role != User.UserRole.ADMIN) {
             throw new UnauthorizedException("Only sellers can create products");
         }
 
-        Product product = Product.builder()
-                .name(request.getName())
-                .description(request.getDescription())
-                .price(request.getPrice())
-                .stock(request.getStock())
-                .category(request.getCategory())
-                .brand(request.getBrand())
-                .status(Product.ProductStatus.ACTIVE)
-                .seller(seller)
-                .build();
-
         // Upload image to S3 if provided
-        if (image != null && !image.isEmpty()) {
-            String imageUrl = s3Service.uploadProductImage(image);
-            product.setImageUrl(imageUrl);
-        }
+        String imageUrl = image != null && !image.isEmpty() ? s3Service.uploadProductImage(image) : null;
 
-        Product savedProduct = productRepository.save(product);
-        log.info("Product created: {}", savedProduct.getName());
+        return withImageCompensation(imageUrl, () -> transactionTemplate.execute(status -> {
+            Product product = Product.builder()
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .stock(request.getStock())
+                    .category(request.getCategory())
+                    .brand(request.getBrand())
+                    .imageUrl(imageUrl)
+                    .status(Product.ProductStatus.ACTIVE)
+                    .seller(securityUtils.getCurrentUserReference())
+                    .build();
 
-        return ProductResponse.fromEntity(savedProduct);
+            Product savedProduct = productRepository.save(product);
+            if (imageUrl != null) {
+                eventPublisher.publishEvent(new ProductImageUploadedEvent(savedProduct.getId(), imageUrl));
+            }
+            log.info("Product created: {}", savedProduct.getName());
+
+            return ProductResponse.fromEntity(savedProduct);
+        }));
     }
 
     @Transactional(readOnly = true)
@@ -93,7 +107,7 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public Page<ProductResponse> getMyProducts(Pageable pageable) {
-        User seller = securityUtils.getCurrentUser();
+        User seller = securityUtils.getCurrentUserReference();
         return productRepository.findBySeller(seller, pageable)
                 .map(ProductResponse::fromEntity);
     }
@@ -103,19 +117,76 @@ public class ProductService {
         return productRepository.findDistinctCategories();
     }
 
-    @Transactional
+    /**
+     * Same phases as createProduct: permission check, upload outside any transaction, then a short
+     * transaction that applies the changes, checking permission again on the row it updates.
+     */
     public ProductResponse updateProduct(Long id, ProductRequest request, MultipartFile image) {
+        boolean hasImage = image != null && !image.isEmpty();
+
+        // Checked before uploading so a forbidden request never reaches S3
+        if (hasImage) {
+            checkCanModify(findProduct(id));
+        }
+
+        String imageUrl = hasImage ? s3Service.uploadProductImage(image) : null;
+
+        return withImageCompensation(imageUrl,
+                () -> transactionTemplate.execute(status -> applyUpdate(id, request, imageUrl)));
+    }
+
+    /**
+     * Presigned PUT so the client uploads the image straight to S3; finish with confirmImageUpload.
+     */
+    @Transactional(readOnly = true)
+    public ImageUploadUrlResponse createImageUploadUrl(Long id, ImageUploadUrlRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
-        User currentUser = securityUtils.getCurrentUser();
-
-        // Only the seller or admin can update
-        if (!product.getSeller().getId().equals(currentUser.getId())
-                && currentUser.getRole() != User.UserRole.ADMIN) {
+        if (!securityUtils.isCurrentUser(product.getSeller().getId()) && !securityUtils.isAdmin()) {
             throw new UnauthorizedException("You don't have permission to update this product");
         }
 
+        return s3Service.presignProductImageUpload(id, request.getFileName(),
+                request.getContentType(), request.getContentLength());
+    }
+
+    /**
+     * The HeadObject check runs outside any transaction, like the upload in updateProduct;
+     * only the row update is transactional.
+     */
+    public ProductResponse confirmImageUpload(Long id, ConfirmImageUploadRequest request) {
+        // Checked before the S3 round trip so a forbidden request never reaches S3
+        checkCanModify(findProduct(id));
+
+        String imageUrl = s3Service.confirmProductImageUpload(id, request.getKey());
+
+        return transactionTemplate.execute(status -> applyImage(id, imageUrl));
+    }
+
+    @Transactional
+    public void deleteProduct(Long id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+
+        if (!securityUtils.isCurrentUser(product.getSeller().getId()) && !securityUtils.isAdmin()) {
+            throw new UnauthorizedException("You don't have permission to delete this product");
+        }
+
+        // Soft delete
+        product.setStatus(Product.ProductStatus.DELETED);
+        productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
+
+        log.info("Product deleted (soft delete): {}", id);
+    }
+
+    private ProductResponse applyUpdate(Long id, ProductRequest request, String imageUrl) {
+        Product product = findProduct(id);
+
+        // Only the seller or admin can update
+        checkCanModify(product);
+
         // Update fields
         if (request.getName() != null) {
             product.setName(request.getName());
@@ -140,37 +211,86 @@ public class ProductService {
         }
 
         // Update image if provided
-        if (image != null && !image.isEmpty()) {
-            // Delete old image if exists
+        boolean imageChanged = false;
+        if (imageUrl != null) {
+            // Delete old image if exists (queued, deleted once this commits)
             if (product.getImageUrl() != null) {
                 s3Service.deleteProductImage(product.getImageUrl());
             }
-            String imageUrl = s3Service.uploadProductImage(image);
+            clearImageVariants(product);
             product.setImageUrl(imageUrl);
+            imageChanged = true;
         }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
+        if (imageChanged) {
+            eventPublisher.publishEvent(new ProductImageUploadedEvent(savedProduct.getId(), savedProduct.getImageUrl()));
+        }
         log.info("Product updated: {}", savedProduct.getId());
 
         return ProductResponse.fromEntity(savedProduct);
     }
 
-    @Transactional
-    public void deleteProduct(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    private ProductResponse applyImage(Long id, String imageUrl) {
+        Product product = findProduct(id);
+        checkCanModify(product);
 
-        User currentUser = securityUtils.getCurrentUser();
+        boolean imageChanged = !imageUrl.equals(product.getImageUrl());
+        if (product.getImageUrl() != null && imageChanged) {
+            s3Service.deleteProductImage(product.getImageUrl());
+        }
+        if (imageChanged) {
+            clearImageVariants(product);
+        }
+        product.setImageUrl(imageUrl);
 
-        if (!product.getSeller().getId().equals(currentUser.getId())
-                && currentUser.getRole() != User.UserRole.ADMIN) {
-            throw new UnauthorizedException("You don't have permission to delete this product");
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId()));
+        if (imageChanged) {
+            eventPublisher.publishEvent(new ProductImageUploadedEvent(savedProduct.getId(), imageUrl));
         }
+        log.info("Product image confirmed: {}", savedProduct.getId());
 
-        // Soft delete
-        product.setStatus(Product.ProductStatus.DELETED);
-        productRepository.save(product);
+        return ProductResponse.fromEntity(savedProduct);
+    }
 
-        log.info("Product deleted (soft delete): {}", id);
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    private void checkCanModify(Product product) {
+        if (!securityUtils.isCurrentUser(product.getSeller().getId()) && !securityUtils.isAdmin()) {
+            throw new UnauthorizedException("You don't have permission to update this product");
+        }
+    }
+
+    /**
+     * Runs the database phase of a write whose image is already in S3. If it fails, the image
+     * reference is released so the object gets deleted instead of being orphaned.
+     */
+    private ProductResponse withImageCompensation(String imageUrl, Supplier<ProductResponse> write) {
+        try {
+            return write.get();
+        } catch (RuntimeException e) {
+            if (imageUrl != null) {
+                log.warn("Product write failed, releasing uploaded image: {}", imageUrl);
+                s3Service.deleteProductImage(imageUrl);
+            }
+            throw e;
+        }
+    }
+
+    // Variants belong to the old image; new ones are generated after the update commits
+    private void clearImageVariants(Product product) {
+        for (String variantUrl : new String[]{product.getThumbnailUrl(), product.getCardUrl(), product.getDetailUrl()}) {
+            if (variantUrl != null) {
+                s3Service.deleteProductImage(variantUrl);
+            }
+        }
+        product.setThumbnailUrl(null);
+        product.setCardUrl(null);
+        product.setDetailUrl(null);
     }
 }
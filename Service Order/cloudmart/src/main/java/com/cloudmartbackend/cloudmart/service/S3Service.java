@@ -1,7 +1,16 @@
 package com.cloudmartbackend.cloudmart.service;
 
 
+import com.cloudmartbackend.cloudmart.dto.response.ImageUploadUrlResponse;
 import com.cloudmartbackend.cloudmart.exception.FileUploadException;
+import com.cloudmartbackend.cloudmart.exception.ServiceUnavailableException;
+import com.cloudmartbackend.cloudmart.repository.ImageReferenceStore;
+import com.cloudmartbackend.cloudmart.repository.PendingImageDeletionStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,18 +19,56 @@ import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class S3Service {
 
+    static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    public static final int MAX_DELETE_BATCH = 1000;
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "webp", "image/webp"
+    );
+
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final MeterRegistry meterRegistry;
+    private final ImageReferenceStore imageReferenceStore;
+    private final PendingImageDeletionStore pendingImageDeletionStore;
 
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
@@ -35,6 +82,64 @@ public class S3Service {
     @Value("${app.upload.max-file-size}")
     private long maxFileSize;
 
+    // Larger files go through multipart upload
+    @Value("${app.upload.multipart-threshold:16777216}")
+    private long multipartThreshold = 16 * 1024 * 1024;
+
+    @Value("${app.upload.part-size:8388608}")
+    private long partSize = 8 * 1024 * 1024;
+
+    @Value("${app.upload.part-concurrency:4}")
+    private int partConcurrency = 4;
+
+    @Value("${app.upload.part-timeout-ms:60000}")
+    private long partTimeoutMs = 60000;
+
+    // Bytes of all uploads in flight at once; uploads wait up to budget-timeout-ms for room
+    @Value("${app.upload.inflight-budget-bytes:67108864}")
+    private long inflightBudgetBytes = 64 * 1024 * 1024;
+
+    @Value("${app.upload.budget-timeout-ms:10000}")
+    private long budgetTimeoutMs = 10000;
+
+    @Value("${app.upload.retry-after-seconds:2}")
+    private long retryAfterSeconds = 2;
+
+    @Value("${app.upload.presign-expiry-seconds:300}")
+    private long presignExpirySeconds = 300;
+
+    private UploadByteBudget uploadBudget;
+    private ThreadPoolExecutor partExecutor;
+    private Counter rejectedUploads;
+    private Counter dedupedUploads;
+
+    @PostConstruct
+    public void init() {
+        // S3 rejects parts under 5 MiB (except the last one)
+        partSize = Math.max(partSize, MIN_PART_SIZE);
+        uploadBudget = new UploadByteBudget(Math.max(inflightBudgetBytes, partSize));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        partExecutor = new ThreadPoolExecutor(partConcurrency, partConcurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-upload-part-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        rejectedUploads = Counter.builder("cloudmart.upload.rejected").register(meterRegistry);
+        dedupedUploads = Counter.builder("cloudmart.upload.deduplicated").register(meterRegistry);
+        Gauge.builder("cloudmart.upload.inflight", uploadBudget, UploadByteBudget::getInFlightBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partExecutor.shutdownNow();
+    }
+
 
     public String uploadProductImage(MultipartFile file) {
         if (file.isEmpty()) {
@@ -55,48 +160,438 @@ public class S3Service {
             throw new FileUploadException("File type not allowed. Allowed types: " + allowedExtensions);
         }
 
+        // Keyed by content, so the same image uploaded for many products is stored (and sent) once
+        byte[] digest;
         try {
-            String fileName = productImagesPrefix + UUID.randomUUID() + "." + fileExtension;
+            digest = sha256(file);
+        } catch (IOException e) {
+            log.error("Failed to read uploaded image", e);
+            throw new FileUploadException("Failed to upload image");
+        }
+        String fileName = productImagesPrefix + HexFormat.of().formatHex(digest) + "." + fileExtension;
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+        imageReferenceStore.acquire(fileName);
+
+        // Streamed from the multipart part (on disk or in memory), never copied onto the heap as a whole
+        try {
+            if (objectExists(fileName)) {
+                dedupedUploads.increment();
+                log.info("Image already in S3, skipping upload: {}", fileName);
+            } else if (file.getSize() > multipartThreshold) {
+                try (InputStream inputStream = file.getInputStream()) {
+                    uploadMultipart(fileName, file.getContentType(), inputStream, file.getSize());
+                }
+            } else {
+                uploadSingle(fileName, file, Base64.getEncoder().encodeToString(digest));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            imageReferenceStore.release(fileName);
+            log.error("Failed to upload image to S3", e);
+            throw new FileUploadException("Failed to upload image");
+        } catch (RuntimeException e) {
+            imageReferenceStore.release(fileName);
+            throw e;
+        }
+
+        String imageUrl = toImageUrl(fileName);
+
+        log.info("Image uploaded to S3: {}", imageUrl);
+
+        return imageUrl;
+    }
+
+    /**
+     * Presigned PUT for uploading a product image straight to S3. Content type and length are
+     * signed, so S3 rejects a PUT that doesn't match what was validated here.
+     */
+    public ImageUploadUrlResponse presignProductImageUpload(Long productId, String fileName,
+                                                           String contentType, long contentLength) {
+        if (contentLength > maxFileSize) {
+            throw new FileUploadException("File size exceeds maximum allowed size");
+        }
+
+        String fileExtension = getFileExtension(fileName);
+        if (!isAllowedExtension(fileExtension)) {
+            throw new FileUploadException("File type not allowed. Allowed types: " + allowedExtensions);
+        }
+
+        if (!contentType.equalsIgnoreCase(CONTENT_TYPES.get(fileExtension))) {
+            throw new FileUploadException("Content type does not match the file extension");
+        }
+
+        String key = productUploadPrefix(productId) + UUID.randomUUID() + "." + fileExtension;
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(CONTENT_TYPES.get(fileExtension))
+                .contentLength(contentLength)
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(presignExpirySeconds))
+                .putObjectRequest(putObjectRequest)
+                .build());
+
+        // Host is set by the HTTP client itself
+        Map<String, String> headers = new HashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+
+        log.info("Presigned image upload for product {}: {}", productId, key);
+
+        return ImageUploadUrlResponse.builder()
+                .uploadUrl(presigned.url().toString())
+                .method("PUT")
+                .headers(headers)
+                .key(key)
+                .expiresAt(presigned.expiration())
+                .build();
+    }
+
+    /**
+     * Checks a presigned upload with a HEAD request and returns its image URL.
+     * An object that turns out too large or of the wrong type is deleted.
+     */
+    public String confirmProductImageUpload(Long productId, String key) {
+        if (!key.startsWith(productUploadPrefix(productId)) || key.contains("..")) {
+            throw new FileUploadException("Invalid upload key");
+        }
+
+        HeadObjectResponse head;
+        try {
+            head = s3Client.headObject(HeadObjectRequest.builder()
                     .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(file.getContentType())
-                    .build();
+                    .key(key)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new FileUploadException("Image has not been uploaded");
+        }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+        String expectedContentType = CONTENT_TYPES.get(getFileExtension(key));
+        if (head.contentLength() == null || head.contentLength() > maxFileSize
+                || expectedContentType == null || !expectedContentType.equalsIgnoreCase(head.contentType())) {
+            deleteProductImage(toImageUrl(key));
+            throw new FileUploadException("Uploaded image does not match the upload constraints");
+        }
 
-            String imageUrl = String.format("https://%s.s3.amazonaws.com/%s", bucketName, fileName);
+        return toImageUrl(key);
+    }
 
-            log.info("Image uploaded to S3: {}", imageUrl);
+    public byte[] downloadProductImage(String imageUrl) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(extractKeyFromUrl(imageUrl))
+                .build()).asByteArray();
+    }
 
-            return imageUrl;
+    /**
+     * Stores a resized copy next to the original, e.g. products/1/abc.jpg -> products/1/abc-thumbnail.jpg.
+     * Variants of a shared original are shared too, so they are reference counted the same way.
+     */
+    public String uploadImageVariant(String imageUrl, String variantName, String extension,
+                                     String contentType, byte[] content) {
+        String originalKey = extractKeyFromUrl(imageUrl);
+        int lastDotIndex = originalKey.lastIndexOf('.');
+        String baseKey = lastDotIndex > originalKey.lastIndexOf('/') ? originalKey.substring(0, lastDotIndex) : originalKey;
+        String key = baseKey + "-" + variantName + "." + extension;
 
-        } catch (IOException e) {
-            log.error("Failed to upload image to S3", e);
-            throw new FileUploadException("Failed to upload image");
+        imageReferenceStore.acquire(key);
+        try {
+            if (objectExists(key)) {
+                return toImageUrl(key);
+            }
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength((long) content.length)
+                            .build(),
+                    RequestBody.fromInputStream(new ByteArrayInputStream(content), content.length));
+        } catch (RuntimeException e) {
+            imageReferenceStore.release(key);
+            throw e;
         }
+
+        return toImageUrl(key);
     }
 
+    /**
+     * Queues the object for deletion unless other products still reference the same content.
+     * No S3 call is made here; ImageDeletionWorker deletes queued keys in batches.
+     */
     public void deleteProductImage(String imageUrl) {
         try {
             String key = extractKeyFromUrl(imageUrl);
 
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+            if (imageReferenceStore.release(key) == ImageReferenceStore.Release.REFERENCED) {
+                log.info("Image still referenced, keeping it in S3: {}", imageUrl);
+                return;
+            }
+
+            pendingImageDeletionStore.enqueue(key);
+
+            log.info("Image queued for deletion from S3: {}", imageUrl);
+
+        } catch (Exception e) {
+            log.error("Failed to queue image for deletion: {}", imageUrl, e);
+            // Don't throw exception - deletion failure shouldn't stop the operation
+        }
+    }
+
+    /**
+     * One DeleteObjects call for up to 1000 keys. Returns the keys S3 failed to delete with their error code.
+     */
+    public Map<String, String> deleteObjects(List<String> keys) {
+        if (keys.size() > MAX_DELETE_BATCH) {
+            throw new IllegalArgumentException("DeleteObjects takes at most " + MAX_DELETE_BATCH + " keys");
+        }
+
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder()
+                        .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                        // Only errors are returned
+                        .quiet(true)
+                        .build())
+                .build());
+
+        Map<String, String> errors = new HashMap<>();
+        for (S3Error error : response.errors()) {
+            errors.put(error.key(), error.code());
+        }
+        return errors;
+    }
+
+    public void forEachProductImage(Consumer<S3Object> consumer) {
+        s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .prefix(productImagesPrefix)
+                        .build())
+                .contents()
+                .forEach(consumer);
+    }
+
+    public String getImageKey(String imageUrl) {
+        return extractKeyFromUrl(imageUrl);
+    }
+
+    public long getInFlightBytes() {
+        return uploadBudget.getInFlightBytes();
+    }
+
+    private void uploadSingle(String key, MultipartFile file, String checksumSha256) {
+        long size = file.getSize();
+        acquireBudget(size);
+
+        // A retry re-opens the file instead of needing the whole body buffered for reset
+        List<InputStream> opened = new ArrayList<>();
+        try {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
+                    .contentType(file.getContentType())
+                    .contentLength(size)
+                    // S3 rejects the PUT if the body doesn't match the hash the key was derived from
+                    .checksumSHA256(checksumSha256)
                     .build();
 
-            s3Client.deleteObject(deleteObjectRequest);
+            s3Client.putObject(putObjectRequest, RequestBody.fromContentProvider(() -> {
+                try {
+                    InputStream inputStream = file.getInputStream();
+                    opened.add(inputStream);
+                    return inputStream;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, size, file.getContentType() != null ? file.getContentType() : "application/octet-stream"));
 
-            log.info("Image deleted from S3: {}", imageUrl);
+        } finally {
+            uploadBudget.release(size);
+            opened.forEach(this::closeQuietly);
+        }
+    }
+
+    /**
+     * Parts are read from the stream one at a time and uploaded in parallel. Each part's buffer
+     * counts against the byte budget until its upload finishes, so reading waits while the
+     * budget is used up.
+     */
+    private void uploadMultipart(String key, String contentType, InputStream inputStream, long size) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        try {
+            long remaining = size;
+            int partNumber = 1;
+
+            while (remaining > 0) {
+                int length = (int) Math.min(partSize, remaining);
+                acquireBudget(length);
+
+                byte[] buffer;
+                try {
+                    buffer = inputStream.readNBytes(length);
+                    if (buffer.length != length) {
+                        throw new IOException("Upload ended after " + (size - remaining + buffer.length) + " of " + size + " bytes");
+                    }
+                    parts.add(partExecutor.submit(uploadPart(key, uploadId, partNumber, buffer, aborted)));
+                } catch (IOException | RuntimeException e) {
+                    uploadBudget.release(length);
+                    throw e;
+                }
+
+                remaining -= length;
+                partNumber++;
+            }
+
+            List<CompletedPart> completedParts = new ArrayList<>();
+            for (Future<CompletedPart> part : parts) {
+                completedParts.add(part.get(partTimeoutMs, TimeUnit.MILLISECONDS));
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
 
         } catch (Exception e) {
-            log.error("Failed to delete image from S3: {}", imageUrl, e);
-            // Don't throw exception - deletion failure shouldn't stop the operation
+            // Parts not started yet skip their upload; wait for the rest before aborting
+            aborted.set(true);
+            awaitQuietly(parts);
+            abortMultipartUpload(key, uploadId);
+
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (e instanceof ExecutionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Multipart upload failed", e);
+        }
+    }
+
+    private Callable<CompletedPart> uploadPart(String key, String uploadId, int partNumber, byte[] buffer,
+                                               AtomicBoolean aborted) {
+        return () -> {
+            try {
+                if (aborted.get()) {
+                    throw new IllegalStateException("Multipart upload aborted");
+                }
+
+                UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) buffer.length)
+                        .build();
+
+                // fromInputStream over the buffer avoids the copy fromBytes would make
+                String eTag = s3Client.uploadPart(uploadPartRequest,
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer), buffer.length)).eTag();
+
+                return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+            } finally {
+                uploadBudget.release(buffer.length);
+            }
+        };
+    }
+
+    private void awaitQuietly(List<Future<CompletedPart>> parts) {
+        for (Future<CompletedPart> part : parts) {
+            try {
+                part.get(partTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception ignored) {
+                // Only waiting for the part to stop
+            }
+        }
+    }
+
+    private boolean objectExists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
         }
     }
 
+    private static byte[] sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = file.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.debug("Failed to close upload stream", e);
+        }
+    }
+
+    private void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            // Left to the bucket's incomplete multipart upload lifecycle rule
+            log.error("Failed to abort multipart upload {} for {}", uploadId, key, e);
+        }
+    }
+
+    private void acquireBudget(long bytes) {
+        try {
+            if (!uploadBudget.tryAcquire(bytes, budgetTimeoutMs)) {
+                rejectedUploads.increment();
+                throw new ServiceUnavailableException("Too many uploads in progress, please retry shortly", retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileUploadException("Upload interrupted");
+        }
+    }
+
+    private String toImageUrl(String key) {
+        return String.format("https://%s.s3.amazonaws.com/%s", bucketName, key);
+    }
+
+    private String productUploadPrefix(Long productId) {
+        return productImagesPrefix + productId + "/";
+    }
+
     private String getFileExtension(String filename) {
         int lastDotIndex = filename.lastIndexOf('.');
         if (lastDotIndex == -1) {
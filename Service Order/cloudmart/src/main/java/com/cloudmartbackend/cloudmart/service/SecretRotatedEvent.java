@@ -0,0 +1,15 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when the AWSCURRENT version of a cached secret changes.
+ * The new value is already in the cache when listeners run.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SecretRotatedEvent {
+    private final String secretName;
+    private final String versionId;
+}
@@ -3,24 +3,44 @@ package com.cloudmartbackend.cloudmart.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretResponse;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secrets are fetched once and cached together with their version id.
+ *
+ * A scheduled job calls DescribeSecret for every cached secret and only re-reads the value
+ * when the version labelled AWSCURRENT has changed, then publishes a {@link SecretRotatedEvent}.
+ * Callers always get the cached value, so nothing on the request path talks to Secrets Manager
+ * after the first read.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SecretsManagerService {
 
+    static final String CURRENT_STAGE = "AWSCURRENT";
+
     private final SecretsManagerClient secretsManagerClient;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${aws.secrets.enabled}")
     private boolean secretsEnabled;
@@ -28,6 +48,9 @@ public class SecretsManagerService {
     @Value("${aws.secrets.db-secret-name}")
     private String dbSecretName;
 
+    private final Map<String, CachedSecret> secretCache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedSecret>> loading = new ConcurrentHashMap<>();
+
     public Map<String, String> getDatabaseCredentials() {
         if (!secretsEnabled) {
             log.info("Secrets Manager is disabled, using local credentials");
@@ -35,16 +58,7 @@ public class SecretsManagerService {
         }
 
         try {
-            GetSecretValueRequest getSecretValueRequest = GetSecretValueRequest.builder()
-                    .secretId(dbSecretName)
-                    .build();
-
-            GetSecretValueResponse getSecretValueResponse =
-                    secretsManagerClient.getSecretValue(getSecretValueRequest);
-
-            String secret = getSecretValueResponse.secretString();
-
-            JsonNode secretNode = objectMapper.readTree(secret);
+            JsonNode secretNode = objectMapper.readTree(getSecret(dbSecretName));
 
             Map<String, String> credentials = new HashMap<>();
             credentials.put("username", secretNode.get("username").asText());
@@ -53,12 +67,10 @@ public class SecretsManagerService {
             credentials.put("port", secretNode.get("port").asText());
             credentials.put("database", secretNode.get("database").asText());
 
-            log.info("Database credentials retrieved from Secrets Manager");
-
             return credentials;
 
         } catch (Exception e) {
-            log.error("Failed to retrieve database credentials from Secrets Manager", e);
+            log.error("Failed to read database credentials from Secrets Manager", e);
             throw new RuntimeException("Failed to retrieve database credentials", e);
         }
     }
@@ -69,19 +81,125 @@ public class SecretsManagerService {
             return null;
         }
 
+        CachedSecret cached = secretCache.get(secretName);
+        if (cached != null) {
+            return cached.value;
+        }
+
+        // Concurrent first reads of the same secret share one GetSecretValue call
+        CompletableFuture<CachedSecret> future = new CompletableFuture<>();
+        CompletableFuture<CachedSecret> existing = loading.putIfAbsent(secretName, future);
+        if (existing != null) {
+            try {
+                return existing.join().value;
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            CachedSecret loaded = load(secretName);
+            secretCache.put(secretName, loaded);
+            future.complete(loaded);
+            return loaded.value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(secretName, future);
+        }
+    }
+
+    public String getDatabaseSecretName() {
+        return dbSecretName;
+    }
+
+    /**
+     * Checks every cached secret for a new AWSCURRENT version. DescribeSecret is metadata only,
+     * the value is fetched again only after a rotation. Failures keep the cached value.
+     */
+    @Scheduled(fixedDelayString = "${aws.secrets.refresh-interval-ms:60000}")
+    public void refreshSecrets() {
+        if (!secretsEnabled) {
+            return;
+        }
+
+        for (String secretName : secretCache.keySet()) {
+            try {
+                refreshSecret(secretName);
+            } catch (Exception e) {
+                log.warn("Failed to refresh secret {}, keeping cached version: {}", secretName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Re-reads one cached secret if AWSCURRENT has moved and publishes a {@link SecretRotatedEvent}.
+     * Listeners run before this returns. Returns whether the secret had rotated.
+     */
+    public synchronized boolean refreshSecret(String secretName) {
+        CachedSecret cached = secretCache.get(secretName);
+        if (!secretsEnabled || cached == null) {
+            return false;
+        }
+
+        String currentVersion = describeCurrentVersion(secretName);
+        if (currentVersion == null || currentVersion.equals(cached.versionId)) {
+            return false;
+        }
+
+        CachedSecret rotated = load(secretName);
+        secretCache.put(secretName, rotated);
+        log.info("Secret {} rotated to version {}", secretName, rotated.versionId);
+
+        eventPublisher.publishEvent(new SecretRotatedEvent(secretName, rotated.versionId));
+        return true;
+    }
+
+    public void clearCache() {
+        secretCache.clear();
+    }
+
+    private String describeCurrentVersion(String secretName) {
+        DescribeSecretResponse response = secretsManagerClient.describeSecret(DescribeSecretRequest.builder()
+                .secretId(secretName)
+                .build());
+
+        if (!response.hasVersionIdsToStages()) {
+            return null;
+        }
+
+        for (Map.Entry<String, List<String>> version : response.versionIdsToStages().entrySet()) {
+            if (version.getValue().contains(CURRENT_STAGE)) {
+                return version.getKey();
+            }
+        }
+        return null;
+    }
+
+    private CachedSecret load(String secretName) {
         try {
             GetSecretValueRequest getSecretValueRequest = GetSecretValueRequest.builder()
                     .secretId(secretName)
+                    .versionStage(CURRENT_STAGE)
                     .build();
 
             GetSecretValueResponse getSecretValueResponse =
                     secretsManagerClient.getSecretValue(getSecretValueRequest);
 
-            return getSecretValueResponse.secretString();
+            log.info("Secret retrieved from Secrets Manager: {}", secretName);
+
+            return new CachedSecret(getSecretValueResponse.secretString(), getSecretValueResponse.versionId());
 
         } catch (Exception e) {
             log.error("Failed to retrieve secret: {}", secretName, e);
             throw new RuntimeException("Failed to retrieve secret", e);
         }
     }
-}
\ No newline at end of file
+
+    @AllArgsConstructor
+    private static class CachedSecret {
+        private final String value;
+        private final String versionId;
+    }
+}
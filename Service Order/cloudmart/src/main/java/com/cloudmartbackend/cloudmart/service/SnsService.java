@@ -1,19 +1,33 @@
 package com.cloudmartbackend.cloudmart.service;
 
+import com.cloudmartbackend.cloudmart.config.MessageTracing;
 import com.cloudmartbackend.cloudmart.domain.entity.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SnsService {
 
     private final SnsClient snsClient;
+    private final MeterRegistry meterRegistry;
+    private final MessageTracing messageTracing;
 
     @Value("${aws.sns.order-topic-arn}")
     private String orderTopicArn;
@@ -34,7 +48,7 @@ public class SnsService {
                     .message(message)
                     .build();
 
-            snsClient.publish(publishRequest);
+            publish("order-confirmation", publishRequest);
 
             log.info("Order confirmation published to SNS: {}", order.getOrderNumber());
 
@@ -65,7 +79,7 @@ public class SnsService {
                     .message(message)
                     .build();
 
-            snsClient.publish(publishRequest);
+            publish("order-status", publishRequest);
 
             log.info("Order status update published to SNS: {}", order.getOrderNumber());
 
@@ -82,7 +96,7 @@ public class SnsService {
                     .message(message)
                     .build();
 
-            snsClient.publish(publishRequest);
+            publish("message", publishRequest);
 
             log.info("Message published to SNS topic: {}", topicArn);
 
@@ -92,6 +106,37 @@ public class SnsService {
         }
     }
 
+    private void publish(String type, PublishRequest publishRequest) {
+        String topicName = MessageTracing.destinationName(publishRequest.topicArn());
+        Span span = messageTracing.getTracer().spanBuilder(topicName + " publish")
+                .setSpanKind(SpanKind.PRODUCER)
+                .setAttribute("messaging.system", "aws_sns")
+                .setAttribute("messaging.destination.name", topicName)
+                .setAttribute("cloudmart.notification.type", type)
+                .startSpan();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try (Scope ignored = span.makeCurrent()) {
+            // Subscribers (SQS, Lambda) can continue the trace from these attributes
+            Map<String, MessageAttributeValue> attributes = new HashMap<>(publishRequest.messageAttributes());
+            attributes.putAll(messageTracing.snsAttributes(Context.current()));
+
+            snsClient.publish(publishRequest.toBuilder().messageAttributes(attributes).build());
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+            sample.stop(Timer.builder("cloudmart.sns.publish")
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
     private String buildOrderConfirmationMessage(Order order) {
         return String.format(
                 "Thank you for your order!%n%n" +
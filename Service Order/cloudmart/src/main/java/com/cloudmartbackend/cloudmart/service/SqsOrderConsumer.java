@@ -1,10 +1,22 @@
 package com.cloudmartbackend.cloudmart.worker;
 
+import com.cloudmartbackend.cloudmart.config.MessageTracing;
+import com.cloudmartbackend.cloudmart.config.ReadWriteRoutingDataSource;
 import com.cloudmartbackend.cloudmart.domain.entity.Order;
 import com.cloudmartbackend.cloudmart.repository.OrderRepository;
 import com.cloudmartbackend.cloudmart.service.SnsService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +25,11 @@ import org.springframework.stereotype.Component;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +40,8 @@ public class SqsOrderConsumer {
     private final OrderRepository orderRepository;
     private final SnsService snsService;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final MessageTracing messageTracing;
 
     @Value("${aws.sqs.order-queue-url}")
     private String orderQueueUrl;
@@ -34,6 +52,23 @@ public class SqsOrderConsumer {
     @Value("${aws.sqs.consumer.max-messages:5}")
     private int maxMessages;
 
+    // Received but not yet deleted or given back to the queue
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private DistributionSummary batchSize;
+    private Timer confirmationTime;
+
+    @PostConstruct
+    public void initMetrics() {
+        batchSize = DistributionSummary.builder("cloudmart.orders.sqs.receive.batch.size")
+                .register(meterRegistry);
+        // Order.createdAt to CONFIRMED, queueing and payment included
+        confirmationTime = Timer.builder("cloudmart.orders.time.to.confirm")
+                .register(meterRegistry);
+        Gauge.builder("cloudmart.orders.sqs.inflight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
     /**
      * Poll SQS queue every 10 seconds for new order messages
      */
@@ -49,10 +84,14 @@ public class SqsOrderConsumer {
                     .maxNumberOfMessages(maxMessages)
                     .waitTimeSeconds(10) // Long polling
                     .visibilityTimeout(30) // 30 seconds to process
+                    .messageAttributeNames(messageTracing.fields())
+                    .attributeNamesWithStrings(MessageSystemAttributeName.SENT_TIMESTAMP.toString())
                     .build();
 
             ReceiveMessageResponse response = sqsClient.receiveMessage(receiveRequest);
+            Instant receivedAt = Instant.now();
             List<Message> messages = response.messages();
+            batchSize.record(messages.size());
 
             if (messages.isEmpty()) {
                 log.debug("No messages in queue");
@@ -61,13 +100,26 @@ public class SqsOrderConsumer {
 
             log.info("Received {} messages from SQS", messages.size());
 
+            inFlight.addAndGet(messages.size());
             for (Message message : messages) {
-                try {
+                Span span = startProcessSpan(message, receivedAt);
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String outcome = "success";
+                try (Scope ignored = span.makeCurrent()) {
                     processOrderMessage(message);
                     deleteMessage(message);
                 } catch (Exception e) {
+                    outcome = "failure";
+                    span.recordException(e);
+                    span.setStatus(StatusCode.ERROR);
                     log.error("Error processing message: {}", message.messageId(), e);
                     // Message will become visible again after visibility timeout
+                } finally {
+                    span.end();
+                    inFlight.decrementAndGet();
+                    sample.stop(Timer.builder("cloudmart.orders.processing")
+                            .tag("outcome", outcome)
+                            .register(meterRegistry));
                 }
             }
 
@@ -76,6 +128,35 @@ public class SqsOrderConsumer {
         }
     }
 
+    /**
+     * Continue the producer's trace: a span covering the time the message sat in the queue
+     * (SentTimestamp to receive) and a consumer span for processing it.
+     */
+    private Span startProcessSpan(Message message, Instant receivedAt) {
+        Context producer = messageTracing.extract(message.messageAttributes());
+        String queueName = MessageTracing.destinationName(orderQueueUrl);
+
+        String sentTimestamp = message.attributes().get(MessageSystemAttributeName.SENT_TIMESTAMP);
+        if (sentTimestamp != null) {
+            Instant sentAt = Instant.ofEpochMilli(Long.parseLong(sentTimestamp));
+            messageTracing.getTracer().spanBuilder(queueName + " queued")
+                    .setParent(producer)
+                    .setSpanKind(SpanKind.INTERNAL)
+                    .setAttribute("messaging.message.id", message.messageId())
+                    .setStartTimestamp(sentAt)
+                    .startSpan()
+                    .end(receivedAt);
+        }
+
+        return messageTracing.getTracer().spanBuilder(queueName + " process")
+                .setParent(producer)
+                .setSpanKind(SpanKind.CONSUMER)
+                .setAttribute("messaging.system", "aws_sqs")
+                .setAttribute("messaging.destination.name", queueName)
+                .setAttribute("messaging.message.id", message.messageId())
+                .startSpan();
+    }
+
     private void processOrderMessage(Message message) {
         try {
             String messageBody = message.body();
@@ -122,11 +203,25 @@ public class SqsOrderConsumer {
             log.info("🔄 Processing order: {} (ID: {})", orderNumber, orderId);
 
             // Step 1: Find order in database
-            Order order = orderRepository.findById(orderId)
+            // Committed moments ago by createOrder, a lagging replica may not have it yet
+            Order order = ReadWriteRoutingDataSource.usePrimary(() -> orderRepository.findById(orderId))
                     .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
 
+            Span.current().setAttribute("cloudmart.order.number", orderNumber);
+
             // Step 2: Simulate payment processing
-            boolean paymentSuccess = processPayment(order);
+            Timer.Sample paymentSample = Timer.start(meterRegistry);
+            Span paymentSpan = messageTracing.getTracer().spanBuilder("payment").startSpan();
+            boolean paymentSuccess;
+            try (Scope ignored = paymentSpan.makeCurrent()) {
+                paymentSuccess = processPayment(order);
+                paymentSpan.setAttribute("cloudmart.payment.success", paymentSuccess);
+            } finally {
+                paymentSpan.end();
+            }
+            paymentSample.stop(Timer.builder("cloudmart.orders.payment")
+                    .tag("outcome", paymentSuccess ? "success" : "declined")
+                    .register(meterRegistry));
 
             if (!paymentSuccess) {
                 log.error("❌ Payment failed for order: {}", orderNumber);
@@ -137,6 +232,9 @@ public class SqsOrderConsumer {
             // Step 3: Update order status to CONFIRMED
             Order.OrderStatus oldStatus = order.getStatus();
             updateOrderStatus(order, Order.OrderStatus.CONFIRMED);
+            if (order.getCreatedAt() != null) {
+                confirmationTime.record(Duration.between(order.getCreatedAt(), LocalDateTime.now()));
+            }
 
             // Step 4: Send confirmation via SNS
             snsService.publishOrderConfirmation(order);
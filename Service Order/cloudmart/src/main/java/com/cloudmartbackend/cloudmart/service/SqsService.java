@@ -1,13 +1,20 @@
 package com.cloudmartbackend.cloudmart.service;
 
+import com.cloudmartbackend.cloudmart.config.MessageTracing;
 import com.cloudmartbackend.cloudmart.domain.entity.Order;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,6 +26,7 @@ public class SqsService {
 
     private final SqsClient sqsClient;
     private final ObjectMapper objectMapper;
+    private final MessageTracing messageTracing;
 
     @Value("${aws.sqs.order-queue-url}")
     private String orderQueueUrl;
@@ -28,7 +36,17 @@ public class SqsService {
             log.warn("SQS queue URL not configured, skipping message send");
             return;
         }
-        try {
+
+        // Producer span; the consumer continues it from the traceparent message attribute
+        String queueName = MessageTracing.destinationName(orderQueueUrl);
+        Span span = messageTracing.getTracer().spanBuilder(queueName + " send")
+                .setSpanKind(SpanKind.PRODUCER)
+                .setAttribute("messaging.system", "aws_sqs")
+                .setAttribute("messaging.destination.name", queueName)
+                .setAttribute("cloudmart.order.number", order.getOrderNumber())
+                .startSpan();
+
+        try (Scope ignored = span.makeCurrent()) {
             Map<String, Object> message = new HashMap<>();
             message.put("orderId", order.getId());
             message.put("orderNumber", order.getOrderNumber());
@@ -42,15 +60,21 @@ public class SqsService {
             SendMessageRequest sendMsgRequest = SendMessageRequest.builder()
                     .queueUrl(orderQueueUrl)
                     .messageBody(messageBody)
+                    .messageAttributes(messageTracing.sqsAttributes(Context.current()))
                     .build();
 
-            sqsClient.sendMessage(sendMsgRequest);
+            SendMessageResponse response = sqsClient.sendMessage(sendMsgRequest);
+            span.setAttribute("messaging.message.id", response.messageId());
 
             log.info("Order message sent to SQS: {}", order.getOrderNumber());
 
         } catch (Exception e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
             log.error("Failed to send order message to SQS", e);
             // Don't throw exception - order is already created
+        } finally {
+            span.end();
         }
     }
 
@@ -59,6 +83,7 @@ public class SqsService {
             SendMessageRequest sendMsgRequest = SendMessageRequest.builder()
                     .queueUrl(queueUrl)
                     .messageBody(message)
+                    .messageAttributes(messageTracing.sqsAttributes(Context.current()))
                     .build();
 
             sqsClient.sendMessage(sendMsgRequest);
@@ -0,0 +1,46 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the bytes of all uploads in flight at once. Callers wait for room, up to a timeout;
+ * permits are counted in KiB so budgets above 2 GB still fit a Semaphore.
+ */
+public class UploadByteBudget {
+
+    private static final int UNIT = 1024;
+
+    private final Semaphore permits;
+    private final int totalPermits;
+
+    public UploadByteBudget(long budgetBytes) {
+        this.totalPermits = (int) Math.max(1, budgetBytes / UNIT);
+        this.permits = new Semaphore(totalPermits, true);
+    }
+
+    /**
+     * @return false if the bytes didn't fit within the timeout
+     */
+    public boolean tryAcquire(long bytes, long timeoutMs) throws InterruptedException {
+        return permits.tryAcquire(toPermits(bytes), timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void release(long bytes) {
+        permits.release(toPermits(bytes));
+    }
+
+    public long getInFlightBytes() {
+        return (long) (totalPermits - permits.availablePermits()) * UNIT;
+    }
+
+    public long getBudgetBytes() {
+        return (long) totalPermits * UNIT;
+    }
+
+    // A single request larger than the whole budget takes all of it rather than waiting forever
+    private int toPermits(long bytes) {
+        long rounded = (bytes + UNIT - 1) / UNIT;
+        return (int) Math.max(1, Math.min(rounded, totalPermits));
+    }
+}
@@ -4,7 +4,10 @@ import com.cloudmartbackend.cloudmart.domain.entity.User;
 import com.cloudmartbackend.cloudmart.dto.response.UserResponse;
 import com.cloudmartbackend.cloudmart.exception.ResourceNotFoundException;
 import com.cloudmartbackend.cloudmart.repository.UserRepository;
+import com.cloudmartbackend.cloudmart.security.CachedUserDetailsService;
 import com.cloudmartbackend.cloudmart.security.SecurityUtils;
+import com.cloudmartbackend.cloudmart.security.TokenRevocationList;
+import com.cloudmartbackend.cloudmart.security.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,6 +22,10 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final SecurityUtils securityUtils;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final CachedUserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenService refreshTokenService;
 
     @Transactional(readOnly = true)
     public UserResponse getCurrentUser() {
@@ -58,6 +65,8 @@ public class UserService {
         }
 
         User saved = userRepository.save(user);
+        verifiedTokenCache.evictUser(saved.getId());
+        userDetailsService.evict(saved.getEmail());
         log.info("User updated: {}", saved.getId());
 
         return UserResponse.fromEntity(saved);
@@ -70,6 +79,11 @@ public class UserService {
 
         user.setStatus(User.UserStatus.DELETED);
         userRepository.save(user);
+        // Existing tokens still claim ACTIVE, stop accepting them on every instance
+        tokenRevocationList.revokeUser(id);
+        refreshTokenService.revokeAllForUser(id);
+        verifiedTokenCache.evictUser(id);
+        userDetailsService.evict(user.getEmail());
 
         log.info("User deleted (soft delete): {}", id);
     }
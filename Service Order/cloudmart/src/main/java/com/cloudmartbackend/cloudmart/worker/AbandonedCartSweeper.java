@@ -0,0 +1,284 @@
+package com.cloudmartbackend.cloudmart.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds carts that DynamoDB TTL has not removed yet.
+ * Carts written before the expiresAt attribute existed get their expiry backfilled,
+ * carts already past their expiry are deleted (TTL deletion can lag by up to 48 hours).
+ */
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "dynamodb", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AbandonedCartSweeper {
+
+    private static final String USER_ID = "userId";
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private final DynamoDbClient dynamoDbClient;
+
+    @Value("${aws.dynamodb.table-name}")
+    private String tableName;
+
+    @Value("${aws.dynamodb.cart-ttl-days:30}")
+    private long cartTtlDays;
+
+    @Value("${aws.dynamodb.sweeper.enabled:true}")
+    private boolean sweeperEnabled;
+
+    @Value("${aws.dynamodb.sweeper.segments:4}")
+    private int segments;
+
+    @Value("${aws.dynamodb.sweeper.page-size:100}")
+    private int pageSize;
+
+    @Value("${aws.dynamodb.sweeper.max-capacity-units-per-second:20}")
+    private double maxCapacityUnitsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private long nextPermitNanos;
+
+    /**
+     * Sweep the cart table with a segmented parallel scan, one thread per segment
+     */
+    @Scheduled(fixedDelayString = "${aws.dynamodb.sweeper.interval-ms:3600000}", initialDelay = 60000)
+    public void sweepAbandonedCarts() {
+        if (!sweeperEnabled) {
+            return;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Abandoned cart sweep already running, skipping");
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(segments, runnable -> {
+            Thread thread = new Thread(runnable, "cart-sweeper-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            synchronized (this) {
+                nextPermitNanos = System.nanoTime();
+            }
+
+            long now = Instant.now().getEpochSecond();
+            List<Future<SweepStats>> results = new ArrayList<>();
+            for (int segment = 0; segment < segments; segment++) {
+                int currentSegment = segment;
+                results.add(executor.submit(() -> sweepSegment(currentSegment, now)));
+            }
+
+            SweepStats total = new SweepStats();
+            for (Future<SweepStats> result : results) {
+                try {
+                    total.add(result.get());
+                } catch (ExecutionException e) {
+                    log.error("Cart sweeper segment failed", e.getCause());
+                }
+            }
+
+            log.info("Abandoned cart sweep finished in {} ms: scanned={}, expired={}, deleted={}, backfilled={}, capacityUnits={}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                    total.scanned, total.matched, total.deleted, total.backfilled,
+                    String.format("%.1f", total.capacityUnits));
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private SweepStats sweepSegment(int segment, long now) {
+        SweepStats stats = new SweepStats();
+        Map<String, AttributeValue> startKey = null;
+
+        do {
+            ScanRequest.Builder scanRequest = ScanRequest.builder()
+                    .tableName(tableName)
+                    .segment(segment)
+                    .totalSegments(segments)
+                    .limit(pageSize)
+                    .projectionExpression("#uid, #upd, #exp")
+                    .filterExpression("attribute_not_exists(#exp) OR #exp < :now")
+                    .expressionAttributeNames(Map.of("#uid", USER_ID, "#upd", UPDATED_AT, "#exp", EXPIRES_AT))
+                    .expressionAttributeValues(Map.of(":now", number(now)))
+                    .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+
+            if (startKey != null) {
+                scanRequest.exclusiveStartKey(startKey);
+            }
+
+            ScanResponse response = dynamoDbClient.scan(scanRequest.build());
+            stats.scanned += response.scannedCount();
+            double consumed = capacityUnits(response.consumedCapacity());
+
+            for (Map<String, AttributeValue> item : response.items()) {
+                stats.matched++;
+                String userId = item.get(USER_ID).s();
+                long expiresAt = item.containsKey(EXPIRES_AT)
+                        ? Long.parseLong(item.get(EXPIRES_AT).n())
+                        : expiryFromUpdatedAt(item.get(UPDATED_AT), now);
+
+                if (expiresAt < now) {
+                    consumed += deleteExpiredCart(userId, now, stats);
+                } else {
+                    consumed += backfillExpiry(userId, expiresAt, stats);
+                }
+            }
+
+            stats.capacityUnits += consumed;
+            throttle(consumed);
+
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+
+        } while (startKey != null && !Thread.currentThread().isInterrupted());
+
+        log.debug("Cart sweeper segment {}/{} done: scanned={}, expired={}", segment, segments, stats.scanned, stats.matched);
+
+        return stats;
+    }
+
+    private double deleteExpiredCart(String userId, long now, SweepStats stats) {
+        try {
+            DeleteItemRequest deleteRequest = DeleteItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of(USER_ID, AttributeValue.builder().s(userId).build()))
+                    // The cart may have been touched after the scan read it
+                    .conditionExpression("attribute_not_exists(#exp) OR #exp < :now")
+                    .expressionAttributeNames(Map.of("#exp", EXPIRES_AT))
+                    .expressionAttributeValues(Map.of(":now", number(now)))
+                    .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                    .build();
+
+            DeleteItemResponse response = dynamoDbClient.deleteItem(deleteRequest);
+            stats.deleted++;
+            log.debug("Deleted abandoned cart for user: {}", userId);
+
+            return capacityUnits(response.consumedCapacity());
+
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Cart for user {} was updated during sweep, keeping it", userId);
+            return 1;
+        }
+    }
+
+    private double backfillExpiry(String userId, long expiresAt, SweepStats stats) {
+        try {
+            UpdateItemRequest updateRequest = UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of(USER_ID, AttributeValue.builder().s(userId).build()))
+                    .updateExpression("SET #exp = :exp")
+                    .conditionExpression("attribute_not_exists(#exp)")
+                    .expressionAttributeNames(Map.of("#exp", EXPIRES_AT))
+                    .expressionAttributeValues(Map.of(":exp", number(expiresAt)))
+                    .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                    .build();
+
+            UpdateItemResponse response = dynamoDbClient.updateItem(updateRequest);
+            stats.backfilled++;
+
+            return capacityUnits(response.consumedCapacity());
+
+        } catch (ConditionalCheckFailedException e) {
+            return 1;
+        }
+    }
+
+    private long expiryFromUpdatedAt(AttributeValue updatedAt, long now) {
+        long ttlSeconds = Duration.ofDays(cartTtlDays).getSeconds();
+
+        if (updatedAt == null || updatedAt.s() == null) {
+            return now + ttlSeconds;
+        }
+
+        try {
+            return Instant.parse(updatedAt.s()).getEpochSecond() + ttlSeconds;
+        } catch (DateTimeParseException e) {
+            return now + ttlSeconds;
+        }
+    }
+
+    /**
+     * Spread the consumed capacity over time so the sweep never exceeds
+     * max-capacity-units-per-second across all segments combined
+     */
+    private void throttle(double capacityUnits) {
+        if (maxCapacityUnitsPerSecond <= 0 || capacityUnits <= 0) {
+            return;
+        }
+
+        long cost = (long) (capacityUnits / maxCapacityUnitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        long waitNanos;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            nextPermitNanos = Math.max(nextPermitNanos, now) + cost;
+            waitNanos = nextPermitNanos - now;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double capacityUnits(ConsumedCapacity consumedCapacity) {
+        if (consumedCapacity == null || consumedCapacity.capacityUnits() == null) {
+            return 1;
+        }
+        return consumedCapacity.capacityUnits();
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    private static class SweepStats {
+        private long scanned;
+        private long matched;
+        private long deleted;
+        private long backfilled;
+        private double capacityUnits;
+
+        private void add(SweepStats other) {
+            scanned += other.scanned;
+            matched += other.matched;
+            deleted += other.deleted;
+            backfilled += other.backfilled;
+            capacityUnits += other.capacityUnits;
+        }
+    }
+}
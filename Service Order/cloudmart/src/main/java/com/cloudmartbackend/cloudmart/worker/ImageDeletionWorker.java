@@ -0,0 +1,207 @@
+package com.cloudmartbackend.cloudmart.worker;
+
+import com.cloudmartbackend.cloudmart.repository.ImageReferenceStore;
+import com.cloudmartbackend.cloudmart.repository.PendingImageDeletionStore;
+import com.cloudmartbackend.cloudmart.repository.ProductRepository;
+import com.cloudmartbackend.cloudmart.service.S3Service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes queued product images from S3 in batches of up to 1000 keys per DeleteObjects call,
+ * off the request path. Keys that fail are retried with exponential backoff.
+ *
+ * A reconciliation pass lists the product image prefix and queues objects nothing points at
+ * any more (e.g. left behind by a crash between upload and commit, or presigned uploads that
+ * were never confirmed). Only objects older than the grace period are considered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDeletionWorker {
+
+    private final PendingImageDeletionStore pendingDeletions;
+    private final ImageReferenceStore imageReferences;
+    private final ProductRepository productRepository;
+    private final S3Service s3Service;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.image.deletion.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.image.deletion.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${app.image.deletion.retry-backoff-ms:60000}")
+    private long retryBackoffMs = 60000;
+
+    @Value("${app.image.deletion.max-backoff-ms:3600000}")
+    private long maxBackoffMs = 3600000;
+
+    @Value("${app.image.deletion.reconcile.enabled:true}")
+    private boolean reconcileEnabled = true;
+
+    // Longer than any upload or presigned URL can take to be committed or confirmed
+    @Value("${app.image.deletion.reconcile.grace-period-hours:24}")
+    private long gracePeriodHours = 24;
+
+    @Value("${app.image.deletion.reconcile.max-orphans:10000}")
+    private int maxOrphans = 10000;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Refreshed once per run rather than counted on every scrape
+    private final AtomicLong pending = new AtomicLong();
+
+    private Counter deleted;
+    private Counter failed;
+    private Counter skipped;
+    private Counter orphans;
+
+    @PostConstruct
+    public void init() {
+        batchSize = Math.min(Math.max(batchSize, 1), S3Service.MAX_DELETE_BATCH);
+
+        deleted = Counter.builder("cloudmart.image.deletion.deleted").register(meterRegistry);
+        failed = Counter.builder("cloudmart.image.deletion.failed").register(meterRegistry);
+        skipped = Counter.builder("cloudmart.image.deletion.skipped").register(meterRegistry);
+        orphans = Counter.builder("cloudmart.image.deletion.orphans").register(meterRegistry);
+        Gauge.builder("cloudmart.image.deletion.pending", pending, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.image.deletion.interval-ms:10000}", initialDelay = 30000)
+    public void processPending() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<PendingImageDeletionStore.PendingDeletion> batch;
+            do {
+                batch = pendingDeletions.findDue(batchSize);
+                if (!batch.isEmpty()) {
+                    deleteBatch(batch);
+                }
+            } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+
+            pending.set(pendingDeletions.count());
+
+        } catch (Exception e) {
+            log.error("Image deletion run failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.image.deletion.reconcile.interval-ms:86400000}",
+            initialDelayString = "${app.image.deletion.reconcile.initial-delay-ms:600000}")
+    public void reconcile() {
+        if (!enabled || !reconcileEnabled) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+
+        Set<String> known = new HashSet<>(imageReferences.findReferencedKeys());
+        for (Object[] urls : productRepository.findAllImageUrls()) {
+            for (Object url : urls) {
+                if (url != null) {
+                    known.add(s3Service.getImageKey((String) url));
+                }
+            }
+        }
+        known.addAll(pendingDeletions.findAllKeys());
+
+        Instant cutoff = Instant.now().minus(Duration.ofHours(gracePeriodHours));
+        List<String> found = new ArrayList<>();
+        int[] scanned = {0};
+
+        s3Service.forEachProductImage(object -> {
+            scanned[0]++;
+            if (found.size() < maxOrphans && object.lastModified().isBefore(cutoff) && !known.contains(object.key())) {
+                found.add(object.key());
+            }
+        });
+
+        // The worker re-checks reference counts under lock, so a key re-used since the scan survives
+        pendingDeletions.enqueueAll(found);
+        orphans.increment(found.size());
+
+        log.info("Image reconciliation finished in {} ms: scanned={}, orphaned={}",
+                Duration.ofNanos(System.nanoTime() - startedAt).toMillis(), scanned[0], found.size());
+    }
+
+    /**
+     * Deletes one batch while holding the reference rows of its keys, so no upload can start
+     * re-using one of them until the objects are gone.
+     */
+    void deleteBatch(List<PendingImageDeletionStore.PendingDeletion> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> keys = new LinkedHashSet<>();
+                batch.forEach(deletion -> keys.add(deletion.getKey()));
+
+                Set<String> referenced = imageReferences.lockForDeletion(keys);
+                List<String> toDelete = new ArrayList<>(keys);
+                toDelete.removeAll(referenced);
+
+                Map<String, String> errors = toDelete.isEmpty() ? Map.of() : s3Service.deleteObjects(toDelete);
+
+                List<String> removed = new ArrayList<>(toDelete);
+                removed.removeAll(errors.keySet());
+                imageReferences.removeUnreferenced(removed);
+
+                List<Long> done = new ArrayList<>();
+                for (PendingImageDeletionStore.PendingDeletion deletion : batch) {
+                    String error = errors.get(deletion.getKey());
+                    if (error == null) {
+                        done.add(deletion.getId());
+                    } else {
+                        log.warn("S3 could not delete {} ({}), attempt {}", deletion.getKey(), error, deletion.getAttempts() + 1);
+                        pendingDeletions.reschedule(deletion, nextAttempt(deletion));
+                    }
+                }
+                pendingDeletions.remove(done);
+
+                deleted.increment(removed.size());
+                skipped.increment(referenced.size());
+                failed.increment(errors.size());
+                log.debug("Deleted {} images, {} still referenced, {} failed", removed.size(), referenced.size(), errors.size());
+            });
+
+        } catch (Exception e) {
+            // Nothing was committed; push the whole batch back
+            log.warn("Image deletion batch of {} failed, retrying later", batch.size(), e);
+            failed.increment(batch.size());
+            for (PendingImageDeletionStore.PendingDeletion deletion : batch) {
+                pendingDeletions.reschedule(deletion, nextAttempt(deletion));
+            }
+        }
+    }
+
+    private Instant nextAttempt(PendingImageDeletionStore.PendingDeletion deletion) {
+        long backoff = retryBackoffMs << Math.min(deletion.getAttempts(), 20);
+        return Instant.now().plusMillis(Math.min(backoff, maxBackoffMs));
+    }
+}
@@ -0,0 +1,66 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessDeniedRefreshingDataSourceTest {
+
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    @Test
+    void accessDeniedTriggersOneRefreshPerInterval() {
+        AccessDeniedRefreshingDataSource dataSource = new AccessDeniedRefreshingDataSource(
+                failingWith(AccessDeniedRefreshingDataSource.MYSQL_ACCESS_DENIED), refreshes::incrementAndGet, 60_000);
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> dataSource.getConnection("cloudmart", "old-password"))
+                    .isInstanceOf(SQLException.class);
+        }
+
+        assertThat(refreshes).hasValue(1);
+    }
+
+    @Test
+    void otherConnectionErrorsDoNotRefresh() {
+        // 2003: can't connect to MySQL server
+        AccessDeniedRefreshingDataSource dataSource = new AccessDeniedRefreshingDataSource(
+                failingWith(2003), refreshes::incrementAndGet, 0);
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+
+        assertThat(refreshes).hasValue(0);
+    }
+
+    @Test
+    void failedRefreshStillSurfacesTheOriginalError() {
+        AccessDeniedRefreshingDataSource dataSource = new AccessDeniedRefreshingDataSource(
+                failingWith(AccessDeniedRefreshingDataSource.MYSQL_ACCESS_DENIED), () -> {
+                    throw new IllegalStateException("Secrets Manager unavailable");
+                }, 0);
+
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("Access denied");
+    }
+
+    private static AbstractDataSource failingWith(int errorCode) {
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("Access denied for user 'cloudmart'@'10.0.0.1'", "28000", errorCode);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.InstanceProfileCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Time, heap and threads to build the seven clients with a default HTTP stack and credentials
+ * provider each (the old wiring) versus the shared ones from AwsConfig. No AWS calls are made;
+ * per-call latency has to be compared against real endpoints.
+ * Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AwsClientWiringBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    @Test
+    void compareWiring() {
+        // Warm up class loading for both variants before measuring
+        measure("warmup (separate)", this::separateClients);
+        measure("warmup (shared)", this::sharedClients);
+
+        measure("separate HTTP clients and credentials", this::separateClients);
+        measure("shared HTTP client and credentials", this::sharedClients);
+    }
+
+    private void measure(String label, Supplier<List<SdkAutoCloseable>> wiring) {
+        long totalNanos = 0;
+        long totalBytes = 0;
+        int threadsAdded = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            int threadsBefore = Thread.activeCount();
+
+            long started = System.nanoTime();
+            List<SdkAutoCloseable> clients = wiring.get();
+            totalNanos += System.nanoTime() - started;
+
+            totalBytes += (runtime.totalMemory() - runtime.freeMemory()) - heapBefore;
+            threadsAdded = Math.max(threadsAdded, Thread.activeCount() - threadsBefore);
+
+            clients.forEach(SdkAutoCloseable::close);
+        }
+
+        System.out.printf("%-40s %7.1f ms  %7.1f MB allocated  +%d threads%n", label,
+                totalNanos / 1e6 / ROUNDS, totalBytes / 1024.0 / 1024.0 / ROUNDS, threadsAdded);
+    }
+
+    private List<SdkAutoCloseable> separateClients() {
+        Region region = Region.US_EAST_1;
+        List<SdkAutoCloseable> clients = new ArrayList<>();
+        clients.add(S3Client.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        clients.add(S3Presigner.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        clients.add(DynamoDbClient.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        clients.add(SqsClient.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        clients.add(SnsClient.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        clients.add(SecretsManagerClient.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        clients.add(SsmClient.builder().region(region).credentialsProvider(InstanceProfileCredentialsProvider.create()).build());
+        return clients;
+    }
+
+    private List<SdkAutoCloseable> sharedClients() {
+        AwsConfig config = new AwsConfig();
+        ReflectionTestUtils.setField(config, "region", "us-east-1");
+        ReflectionTestUtils.setField(config, "maxConnections", 100);
+        ReflectionTestUtils.setField(config, "connectionTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(config, "socketTimeoutMs", 30000L);
+        ReflectionTestUtils.setField(config, "connectionAcquisitionTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(config, "connectionMaxIdleMs", 60000L);
+        ReflectionTestUtils.setField(config, "connectionTtlMs", 300000L);
+        ReflectionTestUtils.setField(config, "tcpKeepAlive", true);
+
+        AwsCredentialsProvider credentials = config.awsCredentialsProvider();
+        SdkHttpClient httpClient = config.awsHttpClient();
+        ClientOverrideConfiguration overrides = config.awsClientOverrideConfiguration(new SimpleMeterRegistry());
+
+        List<SdkAutoCloseable> clients = new ArrayList<>();
+        clients.add(config.s3Client(httpClient, credentials, overrides));
+        clients.add(config.s3Presigner(credentials));
+        clients.add(config.dynamoDbClient(httpClient, credentials, overrides));
+        clients.add(config.sqsClient(httpClient, credentials, overrides));
+        clients.add(config.snsClient(httpClient, credentials, overrides));
+        clients.add(config.secretsManagerClient(httpClient, credentials, overrides));
+        clients.add(config.ssmClient(httpClient, credentials, overrides));
+        clients.add(httpClient);
+        clients.add((SdkAutoCloseable) credentials);
+        return clients;
+    }
+}
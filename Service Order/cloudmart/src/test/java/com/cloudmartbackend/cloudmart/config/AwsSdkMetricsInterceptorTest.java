@@ -0,0 +1,92 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AwsSdkMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatusHttpClient httpClient = new StatusHttpClient();
+
+    private final S3Client s3Client = S3Client.builder()
+            .region(Region.US_EAST_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+            .httpClient(httpClient)
+            .overrideConfiguration(ClientOverrideConfiguration.builder()
+                    .addExecutionInterceptor(new AwsSdkMetricsInterceptor(registry))
+                    .build())
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+    }
+
+    @Test
+    void timesCallsPerServiceOperationAndOutcome() {
+        HeadObjectRequest request = HeadObjectRequest.builder().bucket("bucket").key("products/a.jpg").build();
+
+        s3Client.headObject(request);
+        s3Client.headObject(request);
+
+        httpClient.status = 404;
+        assertThatThrownBy(() -> s3Client.headObject(request)).isInstanceOf(NoSuchKeyException.class);
+
+        Timer success = registry.find("cloudmart.aws.client.requests")
+                .tags("service", "S3", "operation", "HeadObject", "outcome", "SUCCESS")
+                .timer();
+        Timer notFound = registry.find("cloudmart.aws.client.requests")
+                .tags("service", "S3", "operation", "HeadObject", "outcome", "NoSuchKeyException")
+                .timer();
+
+        assertThat(success).isNotNull();
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(notFound).isNotNull();
+        assertThat(notFound.count()).isEqualTo(1);
+    }
+
+    /**
+     * Answers every request with an empty response of the configured status.
+     */
+    private static class StatusHttpClient implements SdkHttpClient {
+
+        private volatile int status = 200;
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() {
+                    return HttpExecuteResponse.builder()
+                            .response(SdkHttpResponse.builder().statusCode(status).build())
+                            .build();
+                }
+
+                @Override
+                public void abort() {
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonFileSpanExporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rollsTheFileOverOnceItReachesMaxBytes() throws IOException {
+        Path file = dir.resolve("traces.jsonl");
+        JsonFileSpanExporter exporter = new JsonFileSpanExporter(file, 1024, new ObjectMapper());
+
+        try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()) {
+            Tracer tracer = tracerProvider.get(TracingConfig.INSTRUMENTATION_SCOPE);
+            for (int i = 0; i < 50; i++) {
+                tracer.spanBuilder("span-" + i).startSpan().end();
+            }
+        }
+
+        Path rolled = dir.resolve("traces.jsonl.1");
+        assertThat(rolled).exists();
+        assertThat(Files.size(rolled)).isBetween(1024L, 2048L);
+        assertThat(Files.size(file)).isLessThan(2048L);
+
+        // Only the current file and one predecessor are kept, the newest span is in the current one
+        try (var files = Files.list(dir)) {
+            assertThat(files).hasSize(2);
+        }
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines.get(lines.size() - 1)).contains("\"name\":\"span-49\"");
+    }
+}
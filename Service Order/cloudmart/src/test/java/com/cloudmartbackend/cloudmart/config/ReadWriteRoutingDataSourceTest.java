@@ -0,0 +1,219 @@
+package com.cloudmartbackend.cloudmart.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    // What the application runs with: JPA read-only flag set before the first statement
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private EntityManager entityManager;
+    private TransactionTemplate jpaReadOnlyTransaction;
+    private TransactionTemplate jpaWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("primary", "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1");
+        replica = pool("replica-1", "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1");
+
+        // Each database knows its own name; the replica also reports a lag
+        new JdbcTemplate(primary).execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        new JdbcTemplate(primary).execute("MERGE INTO whoami KEY (name) VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        new JdbcTemplate(replica).execute("MERGE INTO whoami KEY (name) VALUES ('replica')");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS replica_status (seconds_behind BIGINT)");
+        setLag(0L);
+
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+        properties.setMaxLagSeconds(5);
+        properties.setLagQuery("SELECT seconds_behind FROM replica_status");
+        properties.setLagColumn("seconds_behind");
+
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replica), properties, meterRegistry);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setManagedTypes(PersistenceManagedTypes.of(Whoami.class.getName()));
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        entityManagerFactory.afterPropertiesSet();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+
+        JpaTransactionManager jpaTransactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+        jpaReadOnlyTransaction = new TransactionTemplate(jpaTransactionManager);
+        jpaReadOnlyTransaction.setReadOnly(true);
+        jpaWriteTransaction = new TransactionTemplate(jpaTransactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.destroy();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readsUsePrimaryUntilReplicaPassesHealthCheck() {
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(routeCount("primary-fallback")).isEqualTo(1);
+
+        routing.checkReplicas();
+
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(routeCount("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void writesAndNonTransactionalWorkUsePrimary() {
+        routing.checkReplicas();
+
+        String written = writeTransaction.execute(status -> whoami());
+        assertThat(written).isEqualTo("primary");
+        assertThat(whoami()).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaIsTakenOutOfRotation() {
+        routing.checkReplicas();
+        assertThat(readOnly()).isEqualTo("replica");
+
+        setLag(30L);
+        routing.checkReplicas();
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(meterRegistry.get("cloudmart.datasource.replica.lag").gauge().value()).isEqualTo(30.0);
+
+        setLag(1L);
+        routing.checkReplicas();
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void stoppedReplicationOrUnreachableReplicaFallsBack() {
+        setLag(null);
+        routing.checkReplicas();
+        assertThat(readOnly()).isEqualTo("primary");
+
+        setLag(0L);
+        routing.checkReplicas();
+        replica.close();
+        routing.checkReplicas();
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(meterRegistry.get("cloudmart.datasource.replica.healthy").gauge().value()).isZero();
+    }
+
+    @Test
+    void jpaReadOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        routing.checkReplicas();
+
+        String read = jpaReadOnlyTransaction.execute(status -> jpaWhoami());
+        String written = jpaWriteTransaction.execute(status -> jpaWhoami());
+
+        assertThat(read).isEqualTo("replica");
+        assertThat(written).isEqualTo("primary");
+    }
+
+    @Test
+    void usePrimaryRoutesReadOnlyTransactionsToPrimary() {
+        routing.checkReplicas();
+
+        // Same shape as a Spring Data CRUD read: its own read-only transaction, no outer one
+        String jpaRead = ReadWriteRoutingDataSource.usePrimary(() -> jpaReadOnlyTransaction.execute(status -> jpaWhoami()));
+        String jdbcRead = ReadWriteRoutingDataSource.usePrimary(() -> readOnly());
+        // Scope ends with the call
+        String afterScope = jpaReadOnlyTransaction.execute(status -> jpaWhoami());
+
+        assertThat(jpaRead).isEqualTo("primary");
+        assertThat(jdbcRead).isEqualTo("primary");
+        assertThat(afterScope).isEqualTo("replica");
+    }
+
+    @Test
+    void nestedUsePrimaryKeepsOuterScope() {
+        routing.checkReplicas();
+
+        String afterInner = ReadWriteRoutingDataSource.usePrimary(() -> {
+            ReadWriteRoutingDataSource.usePrimary(() -> readOnly());
+            return readOnly();
+        });
+
+        assertThat(afterInner).isEqualTo("primary");
+    }
+
+    private String jpaWhoami() {
+        return entityManager.createQuery("SELECT w.name FROM Whoami w", String.class).getSingleResult();
+    }
+
+    private String readOnly() {
+        return readOnlyTransaction.execute(status -> whoami());
+    }
+
+    private String whoami() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private void setLag(Long lag) {
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.update("DELETE FROM replica_status");
+        replicaTemplate.update("INSERT INTO replica_status (seconds_behind) VALUES (?)", lag);
+    }
+
+    private double routeCount(String target) {
+        return meterRegistry.get("cloudmart.datasource.route").tag("target", target).counter().count();
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(1000);
+        return dataSource;
+    }
+
+    @Entity(name = "Whoami")
+    @Table(name = "whoami")
+    static class Whoami {
+        @Id
+        private String name;
+    }
+}
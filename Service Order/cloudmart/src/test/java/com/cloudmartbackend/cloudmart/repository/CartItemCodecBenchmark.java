@@ -0,0 +1,27 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Prints the DynamoDB item size and capacity units of both cart storage formats per cart size.
+ * Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CartItemCodecBenchmark {
+
+    @Test
+    void compareStorageFormats() {
+        System.out.println("items | map bytes | map WCU | map RCU | compact bytes | compact WCU | compact RCU");
+
+        for (int size : new int[]{1, 10, 50, 100, 250}) {
+            long mapBytes = CartItemCodecTest.mapItemSize(size);
+            long compactBytes = CartItemCodecTest.compactItemSize(size);
+
+            System.out.printf("%5d | %9d | %7d | %7d | %13d | %11d | %11d%n",
+                    size,
+                    mapBytes, CartItemCodecTest.writeUnits(mapBytes), CartItemCodecTest.readUnits(mapBytes),
+                    compactBytes, CartItemCodecTest.writeUnits(compactBytes), CartItemCodecTest.readUnits(compactBytes));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartItemCodecTest {
+
+    private static final TableSchema<Cart> CART_SCHEMA = TableSchema.fromBean(Cart.class);
+
+    @Test
+    void roundTripsProductIdQuantityAndPrice() {
+        List<CartItem> items = items(3);
+
+        List<CartItem> decoded = CartItemCodec.decode(CartItemCodec.encode(items, 0));
+
+        assertThat(decoded).hasSize(3);
+        for (int i = 0; i < items.size(); i++) {
+            assertThat(decoded.get(i).getProductId()).isEqualTo(items.get(i).getProductId());
+            assertThat(decoded.get(i).getQuantity()).isEqualTo(items.get(i).getQuantity());
+            assertThat(decoded.get(i).getPrice()).isEqualByComparingTo(items.get(i).getPrice());
+            assertThat(decoded.get(i).getSubtotal()).isEqualByComparingTo(items.get(i).getSubtotal());
+        }
+    }
+
+    @Test
+    void compressesLargeCartsAboveThreshold() {
+        List<CartItem> items = items(200);
+
+        byte[] plain = CartItemCodec.encode(items, 0);
+        byte[] compressed = CartItemCodec.encode(items, 256);
+
+        assertThat(compressed.length).isLessThan(plain.length);
+        assertThat(CartItemCodec.decode(compressed)).hasSize(200);
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        byte[] encoded = CartItemCodec.encode(items(1), 0);
+        encoded[0] = 99;
+
+        assertThatThrownBy(() -> CartItemCodec.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void compactFormatUsesFewerCapacityUnits() {
+        for (int size : new int[]{1, 10, 50, 100, 250}) {
+            long mapBytes = mapItemSize(size);
+            long compactBytes = compactItemSize(size);
+
+            assertThat(compactBytes).isLessThan(mapBytes);
+            assertThat(writeUnits(compactBytes)).isLessThanOrEqualTo(writeUnits(mapBytes));
+            assertThat(readUnits(compactBytes)).isLessThanOrEqualTo(readUnits(mapBytes));
+        }
+
+        // From a few dozen items on, the map format crosses into more write units
+        assertThat(writeUnits(compactItemSize(50))).isLessThan(writeUnits(mapItemSize(50)));
+    }
+
+    static long mapItemSize(int size) {
+        return itemSize(CART_SCHEMA.itemToMap(cart(items(size)), true));
+    }
+
+    static long compactItemSize(int size) {
+        Cart compactCart = cart(null);
+        compactCart.setEncodedItems(SdkBytes.fromByteArray(CartItemCodec.encode(items(size), 256)));
+        return itemSize(CART_SCHEMA.itemToMap(compactCart, true));
+    }
+
+    private static Cart cart(List<CartItem> items) {
+        Cart cart = Cart.builder()
+                .userId("12345")
+                .items(items)
+                .updatedAt(Instant.now())
+                .build();
+        cart.refreshExpiry(Duration.ofDays(30));
+        return cart;
+    }
+
+    private static List<CartItem> items(int count) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CartItem item = CartItem.builder()
+                    .productId(1000L + i)
+                    .productName("Wireless Noise Cancelling Headphones Model " + i)
+                    .price(new BigDecimal("149.99").add(BigDecimal.valueOf(i)))
+                    .quantity(1 + i % 5)
+                    .imageUrl("https://cloudmart-images.s3.amazonaws.com/products/" + UUID.randomUUID() + ".jpg")
+                    .availableStock(40 + i)
+                    .build();
+            item.calculateSubtotal();
+            items.add(item);
+        }
+        return items;
+    }
+
+    // DynamoDB item size rules: attribute names + values, 3 bytes per map/list plus 1 byte per element
+    private static long itemSize(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += attribute.getKey().getBytes(StandardCharsets.UTF_8).length + valueSize(attribute.getValue());
+        }
+        return size;
+    }
+
+    private static long valueSize(AttributeValue value) {
+        if (value.s() != null) {
+            return value.s().getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (value.n() != null) {
+            return value.n().replaceAll("[^0-9]", "").length() / 2 + 1;
+        }
+        if (value.b() != null) {
+            return value.b().asByteArray().length;
+        }
+        if (value.hasM()) {
+            return 3 + value.m().size() + itemSize(value.m());
+        }
+        if (value.hasL()) {
+            long size = 3 + value.l().size();
+            for (AttributeValue element : value.l()) {
+                size += valueSize(element);
+            }
+            return size;
+        }
+        return 1;
+    }
+
+    static long writeUnits(long bytes) {
+        return (bytes + 1023) / 1024;
+    }
+
+    static long readUnits(long bytes) {
+        return (bytes + 4095) / 4096;
+    }
+}
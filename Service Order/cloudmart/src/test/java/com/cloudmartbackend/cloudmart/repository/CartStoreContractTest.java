@@ -0,0 +1,137 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every CartStore backend must share. Subclasses only provide the store.
+ */
+abstract class CartStoreContractTest {
+
+    protected CartStore store;
+
+    protected abstract CartStore createStore() throws Exception;
+
+    @BeforeEach
+    void setUpStore() throws Exception {
+        store = createStore();
+    }
+
+    @Test
+    void missingCartLoadsAsNull() {
+        assertThat(store.load(newUserId())).isNull();
+    }
+
+    @Test
+    void savedCartRoundTrips() {
+        Cart cart = cart(newUserId(), 3);
+
+        store.save(cart);
+        Cart loaded = store.load(cart.getUserId());
+
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.getUserId()).isEqualTo(cart.getUserId());
+        assertThat(loaded.getExpiresAt()).isEqualTo(cart.getExpiresAt());
+        assertThat(loaded.getItems()).hasSize(3);
+        for (int i = 0; i < 3; i++) {
+            CartItem expected = cart.getItems().get(i);
+            CartItem actual = loaded.getItems().get(i);
+            assertThat(actual.getProductId()).isEqualTo(expected.getProductId());
+            assertThat(actual.getQuantity()).isEqualTo(expected.getQuantity());
+            assertThat(actual.getPrice()).isEqualByComparingTo(expected.getPrice());
+        }
+    }
+
+    @Test
+    void saveReplacesExistingCart() {
+        Cart cart = cart(newUserId(), 3);
+        store.save(cart);
+
+        cart.removeItem(cart.getItems().get(0).getProductId());
+        store.save(cart);
+
+        assertThat(store.load(cart.getUserId()).getItems()).hasSize(2);
+    }
+
+    @Test
+    void emptyCartLoadsWithEmptyItemList() {
+        Cart cart = cart(newUserId(), 0);
+
+        store.save(cart);
+
+        assertThat(store.load(cart.getUserId()).getItems()).isNotNull().isEmpty();
+    }
+
+    @Test
+    void loadedCartIsNotSharedWithStore() {
+        Cart cart = cart(newUserId(), 1);
+        store.save(cart);
+
+        Cart loaded = store.load(cart.getUserId());
+        loaded.getItems().get(0).setQuantity(99);
+        cart.getItems().get(0).setQuantity(42);
+
+        assertThat(store.load(cart.getUserId()).getItems().get(0).getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredCartLoadsAsNull() {
+        Cart cart = cart(newUserId(), 1);
+        cart.setUpdatedAt(Instant.now().minus(Duration.ofDays(2)));
+        cart.refreshExpiry(Duration.ofDays(1));
+
+        store.save(cart);
+
+        assertThat(store.load(cart.getUserId())).isNull();
+    }
+
+    @Test
+    void deleteRemovesCart() {
+        Cart cart = cart(newUserId(), 2);
+        store.save(cart);
+
+        store.delete(cart.getUserId());
+
+        assertThat(store.load(cart.getUserId())).isNull();
+    }
+
+    protected static String newUserId() {
+        return UUID.randomUUID().toString().substring(0, 18);
+    }
+
+    protected static Cart cart(String userId, int itemCount) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            CartItem item = CartItem.builder()
+                    .productId(1000L + i)
+                    .productName("Product " + i)
+                    .price(new BigDecimal("12.50").add(BigDecimal.valueOf(i)))
+                    .quantity(1 + i)
+                    .imageUrl("https://example.com/" + i + ".png")
+                    .availableStock(50)
+                    .build();
+            item.calculateSubtotal();
+            items.add(item);
+        }
+
+        Cart cart = Cart.builder()
+                .userId(userId)
+                .items(items)
+                .updatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                .build();
+        cart.refreshExpiry(Duration.ofDays(30));
+        return cart;
+    }
+}
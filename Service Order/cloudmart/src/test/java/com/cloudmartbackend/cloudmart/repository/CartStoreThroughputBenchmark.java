@@ -0,0 +1,91 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Same load/modify/save workload against every available backend.
+ * Run with -Dbenchmark=true (and -Ddynamodb.endpoint=... to include DynamoDB Local).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CartStoreThroughputBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int USERS = 500;
+    private static final int ITEMS_PER_CART = 5;
+    private static final int WARMUP_OPS = 2_000;
+    private static final int MEASURED_OPS = 20_000;
+
+    @Test
+    void compareBackends() throws Exception {
+        Map<String, CartStore> stores = new LinkedHashMap<>();
+        stores.put("memory", new InMemoryCartStore());
+        stores.put("jdbc (h2)", JdbcCartStoreTest.createJdbcStore());
+        if (System.getProperty("dynamodb.endpoint") != null) {
+            stores.put("dynamodb (map)", DynamoDbCartStoreTest.createDynamoDbStore("map"));
+            stores.put("dynamodb (compact)", DynamoDbCartStoreTest.createDynamoDbStore("compact"));
+        }
+
+        System.out.printf("%-20s %12s %12s%n", "backend", "ops/s", "avg us/op");
+        for (Map.Entry<String, CartStore> entry : stores.entrySet()) {
+            List<String> userIds = seed(entry.getValue());
+            run(entry.getValue(), userIds, WARMUP_OPS);
+
+            long started = System.nanoTime();
+            run(entry.getValue(), userIds, MEASURED_OPS);
+            long elapsed = System.nanoTime() - started;
+
+            System.out.printf("%-20s %12.0f %12.1f%n",
+                    entry.getKey(),
+                    MEASURED_OPS / (elapsed / 1e9),
+                    elapsed / 1e3 / MEASURED_OPS * THREADS);
+        }
+    }
+
+    private static List<String> seed(CartStore store) {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            Cart cart = CartStoreContractTest.cart(CartStoreContractTest.newUserId(), ITEMS_PER_CART);
+            store.save(cart);
+            userIds.add(cart.getUserId());
+        }
+        return userIds;
+    }
+
+    // One operation = load a cart, bump a quantity, save it back
+    private static void run(CartStore store, List<String> userIds, int operations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = offset; i < operations; i += THREADS) {
+                    Cart cart = store.load(userIds.get(i % userIds.size()));
+                    cart.getItems().get(i % ITEMS_PER_CART).setQuantity(1 + i % 10);
+                    store.save(cart);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+}
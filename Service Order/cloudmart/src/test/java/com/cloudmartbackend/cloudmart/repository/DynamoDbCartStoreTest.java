@@ -0,0 +1,51 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+
+import java.net.URI;
+
+/**
+ * Runs against DynamoDB Local, e.g. -Ddynamodb.endpoint=http://localhost:8000
+ */
+@EnabledIfSystemProperty(named = "dynamodb.endpoint", matches = ".+")
+class DynamoDbCartStoreTest extends CartStoreContractTest {
+
+    @Override
+    protected CartStore createStore() {
+        return createDynamoDbStore(System.getProperty("dynamodb.cart-item-format", "map"));
+    }
+
+    static DynamoDbCartStore createDynamoDbStore(String cartItemFormat) {
+        DynamoDbClient client = DynamoDbClient.builder()
+                .endpointOverride(URI.create(System.getProperty("dynamodb.endpoint")))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+                .build();
+
+        DynamoDbTable<Cart> table = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(client)
+                .build()
+                .table("cloudmart-cart-test", TableSchema.fromBean(Cart.class));
+
+        try {
+            table.createTable();
+        } catch (ResourceInUseException e) {
+            // Table left over from a previous run
+        }
+
+        DynamoDbCartStore store = new DynamoDbCartStore(table);
+        ReflectionTestUtils.setField(store, "cartItemFormat", cartItemFormat);
+        ReflectionTestUtils.setField(store, "compressionThreshold", 256);
+        return store;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+class InMemoryCartStoreTest extends CartStoreContractTest {
+
+    @Override
+    protected CartStore createStore() {
+        return new InMemoryCartStore();
+    }
+}
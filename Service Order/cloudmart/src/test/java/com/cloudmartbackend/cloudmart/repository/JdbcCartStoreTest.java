@@ -0,0 +1,28 @@
+package com.cloudmartbackend.cloudmart.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class JdbcCartStoreTest extends CartStoreContractTest {
+
+    @Override
+    protected CartStore createStore() {
+        return createJdbcStore();
+    }
+
+    // H2 in MySQL mode, so the upsert statement is the one used against RDS
+    static JdbcCartStore createJdbcStore() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:carts;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // Same columns as the CartRecord mapping
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS carts (" +
+                "user_id VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                "items TEXT NOT NULL, " +
+                "updated_at TIMESTAMP(6) NULL, " +
+                "expires_at BIGINT NULL)");
+        return new JdbcCartStore(jdbcTemplate, new ObjectMapper());
+    }
+}
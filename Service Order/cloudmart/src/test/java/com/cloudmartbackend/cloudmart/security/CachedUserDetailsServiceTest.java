@@ -0,0 +1,54 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedUserDetailsServiceTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final UserDetailsServiceImpl delegate = new UserDetailsServiceImpl(null) {
+        @Override
+        public UserDetails loadUserByUsername(String email) {
+            lookups.incrementAndGet();
+            return User.withUsername(email)
+                    .password("{noop}secret")
+                    .authorities(List.of())
+                    .build();
+        }
+    };
+
+    private final CachedUserDetailsService service = new CachedUserDetailsService(delegate);
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        service.loadUserByUsername("a@cloudmart.com");
+        service.loadUserByUsername("a@cloudmart.com");
+
+        assertThat(lookups.get()).isEqualTo(1);
+    }
+
+    @Test
+    void evictForcesReload() {
+        service.loadUserByUsername("a@cloudmart.com");
+        service.evict("a@cloudmart.com");
+        service.loadUserByUsername("a@cloudmart.com");
+
+        assertThat(lookups.get()).isEqualTo(2);
+    }
+
+    @Test
+    void erasingCredentialsDoesNotCorruptCache() {
+        UserDetails first = service.loadUserByUsername("a@cloudmart.com");
+        ((CredentialsContainer) first).eraseCredentials();
+
+        assertThat(service.loadUserByUsername("a@cloudmart.com").getPassword()).isEqualTo("{noop}secret");
+    }
+}
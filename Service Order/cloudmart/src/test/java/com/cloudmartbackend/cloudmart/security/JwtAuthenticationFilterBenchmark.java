@@ -0,0 +1,77 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import com.cloudmartbackend.cloudmart.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Filter cost per request with a cold cache (every request parses and verifies)
+ * versus a warm cache. Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtAuthenticationFilterBenchmark {
+
+    private static final int TOKENS = 1_000;
+    private static final int WARMUP = 50_000;
+    private static final int MEASURED = 500_000;
+
+    @Test
+    void filterCostPerRequest() throws Exception {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "benchmark-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        jwtService.init();
+
+        List<String> tokens = new ArrayList<>();
+        for (long i = 0; i < TOKENS; i++) {
+            tokens.add(jwtService.generateToken(User.builder()
+                    .id(i)
+                    .email("user" + i + "@cloudmart.com")
+                    .role(User.UserRole.CUSTOMER)
+                    .status(User.UserStatus.ACTIVE)
+                    .build()));
+        }
+
+        UserRepository noDatabase = mock(UserRepository.class, invocation -> {
+            throw new IllegalStateException("Claims-based tokens must not hit the database");
+        });
+
+        TokenRevocationList revocationList = new TokenRevocationList(null, jwtService);
+        revocationList.init();
+
+        VerifiedTokenCache disabled = new VerifiedTokenCache(revocationList);
+        ReflectionTestUtils.setField(disabled, "ttlSeconds", 0L);
+        VerifiedTokenCache enabled = new VerifiedTokenCache(revocationList);
+
+        report("no cache", new JwtAuthenticationFilter(jwtService, noDatabase, disabled, revocationList), tokens);
+        report("cache", new JwtAuthenticationFilter(jwtService, noDatabase, enabled, revocationList), tokens);
+    }
+
+    private static void report(String name, JwtAuthenticationFilter filter, List<String> tokens) throws Exception {
+        run(filter, tokens, WARMUP);
+        long started = System.nanoTime();
+        run(filter, tokens, MEASURED);
+        long elapsed = System.nanoTime() - started;
+        System.out.printf("%-10s %8.0f ns/request%n", name, (double) elapsed / MEASURED);
+    }
+
+    private static void run(JwtAuthenticationFilter filter, List<String> tokens, int requests) throws Exception {
+        FilterChain chain = (request, response) -> SecurityContextHolder.clearContext();
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+            request.addHeader("Authorization", "Bearer " + tokens.get(i % tokens.size()));
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import com.cloudmartbackend.cloudmart.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    private JwtService jwtService;
+    private TokenRevocationList revocationList;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "test-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        jwtService.init();
+
+        revocationList = new TokenRevocationList(null, jwtService);
+        revocationList.init();
+
+        filter = new JwtAuthenticationFilter(jwtService, userRepository(), new VerifiedTokenCache(revocationList),
+                revocationList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void legacyTokenOfActiveUserAuthenticatesAsStoredUser() throws Exception {
+        User user = user(7L, User.UserStatus.ACTIVE);
+
+        Authentication authentication = authenticate(legacyToken(user));
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(CloudmartPrincipal.class,
+                principal -> assertThat(principal.getUserId()).isEqualTo(7L));
+    }
+
+    @Test
+    void legacyTokenOfDeletedUserIsRejected() throws Exception {
+        User user = user(7L, User.UserStatus.ACTIVE);
+        String token = legacyToken(user);
+        user.setStatus(User.UserStatus.DELETED);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void legacyTokenIssuedBeforeUserRevocationIsRejected() throws Exception {
+        User user = user(7L, User.UserStatus.ACTIVE);
+        String token = legacyToken(user);
+
+        ReflectionTestUtils.invokeMethod(revocationList, "applyUser", 7L, System.currentTimeMillis() + 1000);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void claimsTokenOfInactiveUserIsRejected() throws Exception {
+        User user = user(8L, User.UserStatus.INACTIVE);
+
+        assertThat(authenticate(jwtService.generateToken(user))).isNull();
+    }
+
+    @Test
+    void expiredTokenContinuesUnauthenticated() throws Exception {
+        User user = user(7L, User.UserStatus.ACTIVE);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1000L);
+        String token = jwtService.generateToken(user);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Left to the entry point, which answers 401
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    // Token as issued before the uid/role/status claims existed
+    private String legacyToken(User user) {
+        return jwtService.generateToken(org.springframework.security.core.userdetails.User
+                .withUsername(user.getEmail())
+                .password("unused")
+                .authorities(List.of())
+                .build());
+    }
+
+    private User user(Long id, User.UserStatus status) {
+        User user = User.builder()
+                .id(id)
+                .email("user" + id + "@cloudmart.com")
+                .role(User.UserRole.CUSTOMER)
+                .status(status)
+                .build();
+        users.put(user.getEmail(), user);
+        return user;
+    }
+
+    private UserRepository userRepository() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(any())).thenAnswer(invocation ->
+                Optional.ofNullable(users.get(invocation.<String>getArgument(0))));
+        return userRepository;
+    }
+}
@@ -0,0 +1,59 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secretKey", "test-secret-key-that-is-long-enough-for-hs256-signing");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60000L);
+        jwtService.init();
+    }
+
+    @Test
+    void principalIsBuiltFromClaims() {
+        User user = User.builder()
+                .id(42L)
+                .email("seller@cloudmart.com")
+                .role(User.UserRole.SELLER)
+                .status(User.UserStatus.ACTIVE)
+                .build();
+
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(user));
+        CloudmartPrincipal principal = jwtService.extractPrincipal(claims);
+
+        assertThat(claims.getId()).isNotBlank();
+        assertThat(principal).isNotNull();
+        assertThat(principal.getUserId()).isEqualTo(42L);
+        assertThat(principal.getName()).isEqualTo("seller@cloudmart.com");
+        assertThat(principal.getRole()).isEqualTo(User.UserRole.SELLER);
+        assertThat(principal.getStatus()).isEqualTo(User.UserStatus.ACTIVE);
+        assertThat(principal.isAdmin()).isFalse();
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_SELLER");
+    }
+
+    @Test
+    void legacyTokenHasNoPrincipal() {
+        String token = jwtService.generateToken(org.springframework.security.core.userdetails.User
+                .withUsername("old@cloudmart.com")
+                .password("unused")
+                .authorities(List.of())
+                .build());
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertThat(claims.getSubject()).isEqualTo("old@cloudmart.com");
+        assertThat(jwtService.extractPrincipal(claims)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void hashesOnThePool() {
+        executor = create(new BCryptPasswordEncoder(4), 1, 1);
+
+        String hash = executor.encode("secret");
+
+        assertThat(executor.matches("secret", hash)).isTrue();
+        assertThat(executor.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("cloudmart.auth.password.hash").tag("operation", "match").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void failsFastWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor = create(blockingEncoder(started, release), 1, 1);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.matches("a", "a"));
+        started.await();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.matches("b", "b"));
+        while (executor.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> executor.matches("c", "c"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.get("cloudmart.auth.password.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get()).isTrue();
+        assertThat(queued.get()).isTrue();
+    }
+
+    @Test
+    void detectsOutdatedWorkFactor() {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        executor = create(new BCryptPasswordEncoder(6), 1, 1);
+
+        assertThat(executor.upgradeEncoding(weak)).isTrue();
+        assertThat(executor.upgradeEncoding(executor.encode("secret"))).isFalse();
+    }
+
+    private PasswordHashingExecutor create(PasswordEncoder encoder, int threads, int queueCapacity) {
+        PasswordHashingExecutor created = new PasswordHashingExecutor(encoder, meterRegistry);
+        ReflectionTestUtils.setField(created, "threads", threads);
+        ReflectionTestUtils.setField(created, "queueCapacity", queueCapacity);
+        created.init();
+        return created;
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+/**
+ * Cost of the bucket check alone and of the whole filter for anonymous requests.
+ * Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RateLimitFilterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final int WARMUP = 1_000_000;
+    private static final int MEASURED = 10_000_000;
+
+    @Test
+    void limiterCostPerRequest() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1_000_000, 1_000_000);
+        String[] keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            blackhole += limiter.tryAcquire(keys[i % CLIENTS], System.nanoTime());
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            blackhole += limiter.tryAcquire(keys[i % CLIENTS], System.nanoTime());
+        }
+        long elapsed = System.nanoTime() - started;
+
+        System.out.printf("tryAcquire: %.1f ns/op (%d)%n", (double) elapsed / MEASURED, blackhole & 1);
+    }
+
+    @Test
+    void filterCostPerRequest() throws Exception {
+        RateLimitProperties.RouteGroup group = new RateLimitProperties.RouteGroup();
+        group.setName("default");
+        group.setPatterns(List.of("/api/**"));
+        group.setRequestsPerSecond(1_000_000);
+        group.setBurst(1_000_000);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setGroups(List.of(group));
+
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 900000L);
+        TokenRevocationList revocationList = new TokenRevocationList(null, jwtService);
+        revocationList.init();
+
+        RateLimitFilter filter = new RateLimitFilter(properties, new VerifiedTokenCache(revocationList),
+                new ObjectMapper(), new SimpleMeterRegistry());
+        filter.init();
+
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            requests[i] = new MockHttpServletRequest("GET", "/api/products/" + i);
+            requests[i].setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> { };
+
+        for (int i = 0; i < WARMUP / 10; i++) {
+            filter.doFilterInternal(requests[i % CLIENTS], response, chain);
+        }
+
+        int measured = MEASURED / 10;
+        long started = System.nanoTime();
+        for (int i = 0; i < measured; i++) {
+            filter.doFilterInternal(requests[i % CLIENTS], response, chain);
+        }
+        long elapsed = System.nanoTime() - started;
+
+        System.out.printf("filter: %.1f ns/request%n", (double) elapsed / measured);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRejectsWithRetryDelay() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 5);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("ip:1", now)).isZero();
+        }
+
+        long wait = limiter.tryAcquire("ip:1", now);
+        assertThat(wait).isEqualTo(SECOND / 2);
+
+        // Other clients have their own bucket
+        assertThat(limiter.tryAcquire("ip:2", now)).isZero();
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("u:1", now)).isZero();
+        assertThat(limiter.tryAcquire("u:1", now + SECOND / 4)).isPositive();
+        assertThat(limiter.tryAcquire("u:1", now + SECOND / 2)).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.001, 100);
+        long now = System.nanoTime();
+        AtomicInteger allowed = new AtomicInteger();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("u:1", now) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    @Test
+    void evictsOnlyIdleBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 10);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("old", now);
+        limiter.tryAcquire("recent", now + 500 * SECOND);
+
+        int evicted = limiter.evictIdle(now + 600 * SECOND, 300 * SECOND);
+
+        assertThat(evicted).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
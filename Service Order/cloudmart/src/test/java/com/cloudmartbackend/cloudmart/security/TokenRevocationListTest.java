@@ -0,0 +1,78 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TokenRevocationListTest {
+
+    private JwtService jwtService;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 900000L);
+        revocationList = new TokenRevocationList(null, jwtService);
+        revocationList.init();
+    }
+
+    @Test
+    void revokedTokenIsRejected() {
+        long now = System.currentTimeMillis();
+        ReflectionTestUtils.invokeMethod(revocationList, "applyToken", "jti-1", now + 60000);
+
+        assertThat(revocationList.isRevoked(1L, "jti-1", now)).isTrue();
+        assertThat(revocationList.isRevoked(1L, "jti-2", now)).isFalse();
+        assertThat(revocationList.isRevoked(1L, null, now)).isFalse();
+    }
+
+    @Test
+    void userRevocationOnlyCoversEarlierTokens() {
+        long now = System.currentTimeMillis();
+        ReflectionTestUtils.invokeMethod(revocationList, "applyUser", 1L, now);
+
+        assertThat(revocationList.isRevoked(1L, "jti-1", now - 1000)).isTrue();
+        assertThat(revocationList.isRevoked(1L, "jti-1", now)).isFalse();
+        assertThat(revocationList.isRevoked(2L, "jti-1", now - 1000)).isFalse();
+    }
+
+    @Test
+    void userRevocationCoversTokensIssuedEarlierInTheSameSecond() {
+        TokenRevocationList withRepository = new TokenRevocationList(mock(TokenRevocationRepository.class), jwtService);
+        withRepository.init();
+        // iat of a token issued just now
+        long issuedAt = System.currentTimeMillis() / 1000 * 1000;
+
+        withRepository.revokeUser(1L);
+
+        assertThat(withRepository.isRevoked(1L, "jti-1", issuedAt)).isTrue();
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        TokenRevocationList.BloomFilter filter = new TokenRevocationList.BloomFilter(1 << 16, 5);
+        for (int i = 0; i < 5000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertThat(filter.mightContain("revoked-" + i)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // ~1% expected at 13 bits per entry
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,69 @@
+package com.cloudmartbackend.cloudmart.security;
+
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private TokenRevocationList revocationList;
+    private VerifiedTokenCache cache;
+
+    private final CloudmartPrincipal principal =
+            new CloudmartPrincipal(7L, "user@cloudmart.com", User.UserRole.CUSTOMER, User.UserStatus.ACTIVE);
+
+    @BeforeEach
+    void setUp() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60000L);
+        revocationList = new TokenRevocationList(null, jwtService);
+        revocationList.init();
+        cache = new VerifiedTokenCache(revocationList);
+    }
+
+    @Test
+    void returnsCachedPrincipalUntilTokenExpires() {
+        long now = System.currentTimeMillis();
+        cache.put("token-a", principal, claims("a", now - 1000, now + 60000));
+        cache.put("token-b", principal, claims("b", now - 2000, now - 1000));
+
+        assertThat(cache.get("token-a")).isSameAs(principal);
+        assertThat(cache.get("token-b")).isNull();
+        assertThat(cache.get("token-c")).isNull();
+    }
+
+    @Test
+    void revokedUserMissesCache() {
+        long now = System.currentTimeMillis();
+        cache.put("token-a", principal, claims("a", now - 5000, now + 60000));
+
+        ReflectionTestUtils.invokeMethod(revocationList, "applyUser", 7L, now);
+
+        assertThat(cache.get("token-a")).isNull();
+    }
+
+    @Test
+    void evictUserDropsEntries() {
+        long now = System.currentTimeMillis();
+        cache.put("token-a", principal, claims("a", now - 5000, now + 60000));
+
+        cache.evictUser(7L);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private static Claims claims(String jti, long issuedAt, long expiration) {
+        return Jwts.claims()
+                .id(jti)
+                .issuedAt(new Date(issuedAt))
+                .expiration(new Date(expiration))
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartProductIndexTest {
+
+    private final CartProductIndex index = new CartProductIndex();
+
+    @Test
+    void findsUsersHoldingProduct() {
+        index.update(cart("1", 10L, 11L));
+        index.update(cart("2", 11L));
+
+        assertThat(index.getUserIds(10L)).containsExactly("1");
+        assertThat(index.getUserIds(11L)).containsExactlyInAnyOrder("1", "2");
+        assertThat(index.getUserIds(12L)).isEmpty();
+    }
+
+    @Test
+    void updateDropsProductsNoLongerInCart() {
+        index.update(cart("1", 10L, 11L));
+        index.update(cart("1", 11L));
+
+        assertThat(index.getUserIds(10L)).isEmpty();
+        assertThat(index.getUserIds(11L)).containsExactly("1");
+    }
+
+    @Test
+    void emptyOrRemovedCartIsUnindexed() {
+        index.update(cart("1", 10L));
+        index.update(cart("2", 10L));
+
+        index.update(cart("1"));
+        index.remove("2");
+
+        assertThat(index.getUserIds(10L)).isEmpty();
+        assertThat(index.getUserCount()).isZero();
+    }
+
+    private static Cart cart(String userId, Long... productIds) {
+        List<CartItem> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            items.add(CartItem.builder().productId(productId).quantity(1).build());
+        }
+        return Cart.builder().userId(userId).items(items).build();
+    }
+}
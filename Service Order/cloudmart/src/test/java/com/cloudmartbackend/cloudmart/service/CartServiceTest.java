@@ -0,0 +1,105 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import com.cloudmartbackend.cloudmart.domain.entity.Product;
+import com.cloudmartbackend.cloudmart.dto.response.CartItemResponse;
+import com.cloudmartbackend.cloudmart.dto.response.CartResponse;
+import com.cloudmartbackend.cloudmart.repository.InMemoryCartStore;
+import com.cloudmartbackend.cloudmart.repository.ProductRepository;
+import com.cloudmartbackend.cloudmart.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    private final InMemoryCartStore cartStore = new InMemoryCartStore();
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SecurityUtils securityUtils = mock(SecurityUtils.class);
+    private final CartProductIndex cartProductIndex = new CartProductIndex();
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        when(securityUtils.getCurrentUserId()).thenReturn(USER_ID);
+
+        ProductCache productCache = new ProductCache(productRepository);
+        ReflectionTestUtils.setField(productCache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(productCache, "maxSize", 100);
+
+        cartService = new CartService(cartStore, productRepository, securityUtils, productCache, cartProductIndex);
+        ReflectionTestUtils.setField(cartService, "cartTtlDays", 30L);
+        ReflectionTestUtils.setField(cartService, "writeBehindWindowMs", 0L);
+        cartService.initWriteBuffer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartService.flushWriteBuffer();
+    }
+
+    @Test
+    void loadRefreshesCartThisInstanceHasNeverIndexed() {
+        // Saved by another instance with the price and stock of the time
+        cartStore.save(cart(item(10L, "9.99", 2, 50), item(11L, "5.00", 1, 10)));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(
+                product(10L, "12.50", 3, Product.ProductStatus.ACTIVE),
+                product(11L, "5.00", 10, Product.ProductStatus.DISCONTINUED)));
+        assertThat(cartProductIndex.getUserIds(10L)).isEmpty();
+
+        CartResponse response = cartService.getCart();
+
+        CartItemResponse changed = response.getItems().get(0);
+        assertThat(changed.getPrice()).isEqualByComparingTo("12.50");
+        assertThat(changed.getAvailableStock()).isEqualTo(3);
+        assertThat(changed.getSubtotal()).isEqualByComparingTo("25.00");
+        assertThat(response.getItems().get(1).getAvailableStock()).isZero();
+        assertThat(cartProductIndex.getUserIds(10L)).containsExactly(String.valueOf(USER_ID));
+    }
+
+    private static Cart cart(CartItem... items) {
+        return Cart.builder()
+                .userId(String.valueOf(USER_ID))
+                .items(new ArrayList<>(List.of(items)))
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    private static CartItem item(Long productId, String price, int quantity, int stock) {
+        CartItem item = CartItem.builder()
+                .productId(productId)
+                .productName("Product " + productId)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .availableStock(stock)
+                .build();
+        item.calculateSubtotal();
+        return item;
+    }
+
+    private static Product product(Long id, String price, int stock, Product.ProductStatus status) {
+        Product product = Product.builder()
+                .name("Product " + id)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .status(status)
+                .build();
+        product.setId(id);
+        return product;
+    }
+}
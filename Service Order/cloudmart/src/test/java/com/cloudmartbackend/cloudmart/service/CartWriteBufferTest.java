@@ -0,0 +1,213 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.domain.entity.CartItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartWriteBufferTest {
+
+    private final Map<String, Cart> store = new ConcurrentHashMap<>();
+    private final AtomicInteger storeWrites = new AtomicInteger();
+
+    private CartWriteBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void concurrentQuantityChangesAreCoalescedWithoutLostUpdates() throws Exception {
+        buffer = new CartWriteBuffer(this::load, this::save, 200);
+        store.put("1", cartWithItem("1", 42L, 0));
+
+        int threads = 8;
+        int clicksPerThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < clicksPerThread; i++) {
+                    buffer.write("1", true, cart -> {
+                        CartItem item = cart.getItems().get(0);
+                        item.setQuantity(item.getQuantity() + 1);
+                        item.calculateSubtotal();
+                        return cart;
+                    }, cart -> cart.getItems().get(0).getQuantity());
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Reads see buffered state before it is flushed
+        int buffered = buffer.read("1", cart -> cart.getItems().get(0).getQuantity());
+        assertThat(buffered).isEqualTo(threads * clicksPerThread);
+
+        buffer.flushAll();
+
+        assertThat(store.get("1").getItems().get(0).getQuantity()).isEqualTo(threads * clicksPerThread);
+        assertThat(buffer.getMutationCount()).isEqualTo(threads * clicksPerThread);
+        assertThat(storeWrites.get()).isLessThan(threads * clicksPerThread / 10);
+    }
+
+    @Test
+    void flushesAfterWindowExpires() throws Exception {
+        buffer = new CartWriteBuffer(this::load, this::save, 50);
+        store.put("2", cartWithItem("2", 7L, 1));
+
+        buffer.write("2", true, cart -> {
+            cart.getItems().get(0).setQuantity(5);
+            return cart;
+        }, cart -> null);
+
+        assertThat(store.get("2").getItems().get(0).getQuantity()).isEqualTo(1);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((storeWrites.get() == 0 || buffer.getPendingCount() > 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(storeWrites.get()).isEqualTo(1);
+        assertThat(store.get("2").getItems().get(0).getQuantity()).isEqualTo(5);
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void writeThroughFlushesImmediately() {
+        buffer = new CartWriteBuffer(this::load, this::save, 10_000);
+        store.put("3", cartWithItem("3", 9L, 2));
+
+        buffer.write("3", true, cart -> {
+            cart.getItems().get(0).setQuantity(3);
+            return cart;
+        }, cart -> null);
+        buffer.write("3", false, cart -> {
+            cart.clear();
+            return cart;
+        }, cart -> null);
+
+        assertThat(storeWrites.get()).isEqualTo(1);
+        assertThat(store.get("3").getItems()).isEmpty();
+    }
+
+    @Test
+    void failedMutationIsNotWritten() {
+        buffer = new CartWriteBuffer(this::load, this::save, 10_000);
+
+        assertThatThrownBy(() -> buffer.write("4", true, cart -> {
+            throw new IllegalStateException("Cart is empty");
+        }, cart -> null)).isInstanceOf(IllegalStateException.class);
+
+        buffer.flushAll();
+        assertThat(storeWrites.get()).isZero();
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void readRacingFirstWriteSeesStoredCart() throws Exception {
+        buffer = new CartWriteBuffer(this::load, this::save, 10_000);
+        int users = 50_000;
+        for (int i = 0; i < users; i++) {
+            store.put("race-" + i, cartWithItem("race-" + i, 1L, 1));
+        }
+
+        // The reader may get the entry lock after the writer created the entry but before it loaded
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < users; i++) {
+                barrier.await();
+                buffer.write("race-" + i, true, cart -> cart, cart -> null);
+            }
+            return null;
+        });
+        Future<Integer> reader = executor.submit(() -> {
+            int empty = 0;
+            for (int i = 0; i < users; i++) {
+                barrier.await();
+                if (buffer.read("race-" + i, cart -> cart == null)) {
+                    empty++;
+                }
+            }
+            return empty;
+        });
+
+        writer.get(60, TimeUnit.SECONDS);
+        assertThat(reader.get(60, TimeUnit.SECONDS)).isZero();
+        executor.shutdown();
+    }
+
+    private Cart load(String userId) {
+        Cart stored = store.get(userId);
+        return stored != null ? copy(stored) : null;
+    }
+
+    private void save(Cart cart) {
+        // Copy so the buffer never shares state with the "table"
+        store.put(cart.getUserId(), copy(cart));
+        storeWrites.incrementAndGet();
+    }
+
+    private static Cart copy(Cart source) {
+        Cart copy = Cart.builder()
+                .userId(source.getUserId())
+                .items(new ArrayList<>())
+                .updatedAt(source.getUpdatedAt())
+                .build();
+        for (CartItem item : source.getItems()) {
+            copy.getItems().add(CartItem.builder()
+                    .productId(item.getProductId())
+                    .price(item.getPrice())
+                    .quantity(item.getQuantity())
+                    .build());
+        }
+        return copy;
+    }
+
+    private static Cart cartWithItem(String userId, Long productId, int quantity) {
+        CartItem item = CartItem.builder()
+                .productId(productId)
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .build();
+        item.calculateSubtotal();
+
+        List<CartItem> items = new ArrayList<>();
+        items.add(item);
+
+        return Cart.builder()
+                .userId(userId)
+                .items(items)
+                .updatedAt(Instant.now())
+                .build();
+    }
+}
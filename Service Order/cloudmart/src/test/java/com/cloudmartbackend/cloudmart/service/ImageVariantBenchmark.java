@@ -0,0 +1,73 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Images processed per second (decode, three variants, encode) on one thread and on all cores,
+ * for a typical 12 MP phone photo and a 2000 px catalog image. No S3 involved.
+ * Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ImageVariantBenchmark {
+
+    private static final int IMAGES_PER_THREAD = 20;
+
+    private final ImageVariantGenerator generator = new ImageVariantGenerator(List.of(
+            new ImageVariantGenerator.VariantSpec("thumbnail", 150),
+            new ImageVariantGenerator.VariantSpec("card", 400),
+            new ImageVariantGenerator.VariantSpec("detail", 1000)
+    ), 0.85f, 40_000_000);
+
+    @Test
+    void imagesPerSecondPerCore() throws Exception {
+        byte[] photo = ImageVariantGeneratorTest.encode(ImageVariantGeneratorTest.image(4000, 3000, false), "jpg");
+        byte[] catalog = ImageVariantGeneratorTest.encode(ImageVariantGeneratorTest.image(2000, 2000, false), "jpg");
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        // Warm up JIT and ImageIO codecs
+        run(catalog, 1, 5);
+
+        for (int threads : new int[]{1, cores}) {
+            report("4000x3000 jpeg", photo, threads);
+            report("2000x2000 jpeg", catalog, threads);
+        }
+    }
+
+    private void report(String label, byte[] image, int threads) throws Exception {
+        long started = System.nanoTime();
+        run(image, threads, IMAGES_PER_THREAD);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        double perSecond = threads * IMAGES_PER_THREAD / seconds;
+        System.out.printf("%-16s %2d threads  %6.1f images/s  %6.1f images/s/thread%n",
+                label, threads, perSecond, perSecond / threads);
+    }
+
+    private void run(byte[] image, int threads, int imagesPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < imagesPerThread; i++) {
+                        generator.generate(image);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageVariantGeneratorTest {
+
+    private final ImageVariantGenerator generator = new ImageVariantGenerator(List.of(
+            new ImageVariantGenerator.VariantSpec("thumbnail", 150),
+            new ImageVariantGenerator.VariantSpec("card", 400),
+            new ImageVariantGenerator.VariantSpec("detail", 1000)
+    ), 0.85f, 40_000_000);
+
+    @Test
+    void scalesToEachWidthKeepingAspectRatio() throws IOException {
+        List<ImageVariantGenerator.Variant> variants = generator.generate(encode(image(2000, 1500, false), "jpg"));
+
+        assertThat(variants).extracting(ImageVariantGenerator.Variant::getName)
+                .containsExactly("detail", "card", "thumbnail");
+        assertThat(variants).extracting(ImageVariantGenerator.Variant::getWidth).containsExactly(1000, 400, 150);
+        assertThat(variants).extracting(ImageVariantGenerator.Variant::getHeight).containsExactly(750, 300, 113);
+
+        for (ImageVariantGenerator.Variant variant : variants) {
+            assertThat(variant.getContentType()).isEqualTo("image/jpeg");
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(variant.getContent()));
+            assertThat(decoded.getWidth()).isEqualTo(variant.getWidth());
+        }
+    }
+
+    @Test
+    void doesNotUpscaleSmallImages() throws IOException {
+        List<ImageVariantGenerator.Variant> variants = generator.generate(encode(image(300, 200, false), "png"));
+
+        assertThat(variants).extracting(ImageVariantGenerator.Variant::getWidth).containsExactly(300, 300, 150);
+    }
+
+    @Test
+    void keepsTransparentImagesAsPng() throws IOException {
+        List<ImageVariantGenerator.Variant> variants = generator.generate(encode(image(800, 800, true), "png"));
+
+        assertThat(variants).allSatisfy(variant -> {
+            assertThat(variant.getContentType()).isEqualTo("image/png");
+            assertThat(variant.getExtension()).isEqualTo("png");
+        });
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(variants.get(2).getContent()));
+        assertThat(thumbnail.getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    void rejectsUndecodableBytes() {
+        assertThatThrownBy(() -> generator.generate(new byte[]{'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P'}))
+                .isInstanceOf(ImageVariantGenerator.UnsupportedImageException.class);
+    }
+
+    @Test
+    void rejectsImagesDeclaringTooManyPixelsBeforeDecoding() throws IOException {
+        // A few hundred bytes on disk, 40 GB once decoded
+        byte[] png = withDimensions(encode(image(10, 10, false), "png"), 100_000, 100_000);
+
+        assertThatThrownBy(() -> generator.generate(png))
+                .isInstanceOf(ImageVariantGenerator.UnsupportedImageException.class)
+                .hasMessageContaining("100000x100000");
+    }
+
+    @Test
+    void pixelLimitIsConfigurable() throws IOException {
+        ImageVariantGenerator small = new ImageVariantGenerator(
+                List.of(new ImageVariantGenerator.VariantSpec("thumbnail", 150)), 0.85f, 100 * 100);
+
+        assertThat(small.generate(encode(image(100, 100, false), "png"))).hasSize(1);
+        assertThatThrownBy(() -> small.generate(encode(image(101, 100, false), "png")))
+                .isInstanceOf(ImageVariantGenerator.UnsupportedImageException.class);
+    }
+
+    static BufferedImage image(int width, int height, boolean alpha) {
+        BufferedImage image = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(new Color(200, 40, 40, alpha ? 128 : 255));
+            graphics.fillRect(0, 0, width / 2, height);
+            graphics.setColor(new Color(40, 40, 200, 255));
+            graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    // Rewrites the IHDR width and height of a PNG, with a matching CRC
+    private static byte[] withDimensions(byte[] png, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(png.clone());
+        buffer.putInt(16, width);
+        buffer.putInt(20, height);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return buffer.array();
+    }
+}
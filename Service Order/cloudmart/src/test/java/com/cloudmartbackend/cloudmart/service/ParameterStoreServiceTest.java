@@ -0,0 +1,230 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+import software.amazon.awssdk.services.ssm.paginators.GetParametersByPathIterable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParameterStoreServiceTest {
+
+    private final FakeSsmClient ssm = new FakeSsmClient();
+    private ParameterStoreService service;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            ssm.values.put("/cloudmart/param-" + i, "value-" + i);
+        }
+        ssm.values.put("/other/flag", "true");
+
+        service = new ParameterStoreService(ssm);
+        ReflectionTestUtils.setField(service, "parameterStoreEnabled", true);
+    }
+
+    @Test
+    void preloadsByPathAndNamesInBatchesOfTen() {
+        ReflectionTestUtils.setField(service, "preloadPath", "/cloudmart/");
+        ReflectionTestUtils.setField(service, "preloadNames", List.of("/other/flag"));
+
+        service.preload();
+
+        assertThat(service.size()).isEqualTo(26);
+        assertThat(ssm.byPathCalls.get()).isEqualTo(3);
+        assertThat(ssm.batchCalls.get()).isEqualTo(1);
+
+        assertThat(service.getParameter("/cloudmart/param-3")).isEqualTo("value-3");
+        assertThat(service.getBooleanParameter("/other/flag", false)).isTrue();
+        assertThat(ssm.singleCalls.get()).isZero();
+    }
+
+    @Test
+    void cachesHitsAndMisses() {
+        assertThat(service.getParameter("/cloudmart/param-1")).isEqualTo("value-1");
+        assertThat(service.getParameter("/cloudmart/param-1")).isEqualTo("value-1");
+        assertThat(service.getParameter("/cloudmart/missing", "fallback")).isEqualTo("fallback");
+        assertThat(service.getParameter("/cloudmart/missing", "fallback")).isEqualTo("fallback");
+
+        assertThat(ssm.singleCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void bulkLookupFetchesOnlyMisses() {
+        service.getParameter("/cloudmart/param-0");
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            names.add("/cloudmart/param-" + i);
+        }
+        Map<String, String> values = service.getParameters(names);
+
+        assertThat(values).hasSize(21).containsEntry("/cloudmart/param-20", "value-20");
+        // 20 misses -> 2 calls
+        assertThat(ssm.batchCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void refreshAheadPicksUpChangedValues() {
+        ReflectionTestUtils.setField(service, "ttlSeconds", 0L);
+        service.getParameter("/cloudmart/param-1");
+        service.getParameter("/cloudmart/param-2");
+
+        ssm.values.put("/cloudmart/param-1", "changed");
+        ssm.values.remove("/cloudmart/param-2");
+        service.refreshExpiring();
+
+        assertThat(service.getParameter("/cloudmart/param-1")).isEqualTo("changed");
+        assertThat(service.getParameter("/cloudmart/param-2")).isNull();
+        assertThat(ssm.batchCalls.get()).isEqualTo(1);
+        assertThat(ssm.singleCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRefreshKeepsServingCachedValue() {
+        ReflectionTestUtils.setField(service, "ttlSeconds", 0L);
+        service.getParameter("/cloudmart/param-1");
+
+        ssm.failing = true;
+        service.refreshExpiring();
+
+        assertThat(service.getParameter("/cloudmart/param-1")).isEqualTo("value-1");
+    }
+
+    @Test
+    void concurrentMissesShareOneCall() throws Exception {
+        ssm.delayMillis = 100;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return service.getParameter("/cloudmart/param-5");
+            }));
+        }
+        start.countDown();
+        for (Future<String> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("value-5");
+        }
+        executor.shutdown();
+
+        assertThat(ssm.singleCalls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Local SSM stand-in that counts calls per API.
+     */
+    private static class FakeSsmClient implements SsmClient {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final AtomicInteger singleCalls = new AtomicInteger();
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        private final AtomicInteger byPathCalls = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile long delayMillis;
+
+        @Override
+        public GetParameterResponse getParameter(GetParameterRequest request) {
+            singleCalls.incrementAndGet();
+            sleep();
+            String value = values.get(request.name());
+            if (value == null) {
+                throw ParameterNotFoundException.builder().message("not found").build();
+            }
+            return GetParameterResponse.builder().parameter(parameter(request.name(), value)).build();
+        }
+
+        @Override
+        public GetParametersResponse getParameters(GetParametersRequest request) {
+            batchCalls.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("SSM unavailable");
+            }
+            assertThat(request.names()).hasSizeLessThanOrEqualTo(10);
+
+            List<Parameter> found = new ArrayList<>();
+            List<String> invalid = new ArrayList<>();
+            for (String name : request.names()) {
+                String value = values.get(name);
+                if (value != null) {
+                    found.add(parameter(name, value));
+                } else {
+                    invalid.add(name);
+                }
+            }
+            return GetParametersResponse.builder().parameters(found).invalidParameters(invalid).build();
+        }
+
+        @Override
+        public GetParametersByPathResponse getParametersByPath(GetParametersByPathRequest request) {
+            byPathCalls.incrementAndGet();
+            List<String> names = values.keySet().stream()
+                    .filter(name -> name.startsWith(request.path()))
+                    .sorted()
+                    .toList();
+
+            // Pages of 10, like SSM's maximum page size
+            int offset = request.nextToken() != null ? Integer.parseInt(request.nextToken()) : 0;
+            int end = Math.min(offset + 10, names.size());
+            List<Parameter> page = new ArrayList<>();
+            for (String name : names.subList(offset, end)) {
+                page.add(parameter(name, values.get(name)));
+            }
+
+            return GetParametersByPathResponse.builder()
+                    .parameters(page)
+                    .nextToken(end < names.size() ? String.valueOf(end) : null)
+                    .build();
+        }
+
+        @Override
+        public GetParametersByPathIterable getParametersByPathPaginator(GetParametersByPathRequest request) {
+            return new GetParametersByPathIterable(this, request);
+        }
+
+        @Override
+        public String serviceName() {
+            return "ssm";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void sleep() {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private static Parameter parameter(String name, String value) {
+            return Parameter.builder().name(name).value(value).build();
+        }
+    }
+}
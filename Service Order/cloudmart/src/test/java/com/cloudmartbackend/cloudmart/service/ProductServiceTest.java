@@ -0,0 +1,252 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Product;
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import com.cloudmartbackend.cloudmart.dto.request.ConfirmImageUploadRequest;
+import com.cloudmartbackend.cloudmart.dto.request.ProductRequest;
+import com.cloudmartbackend.cloudmart.dto.response.ProductResponse;
+import com.cloudmartbackend.cloudmart.exception.UnauthorizedException;
+import com.cloudmartbackend.cloudmart.repository.ProductRepository;
+import com.cloudmartbackend.cloudmart.repository.UserRepository;
+import com.cloudmartbackend.cloudmart.security.CloudmartPrincipal;
+import com.cloudmartbackend.cloudmart.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private static final long SELLER_ID = 7L;
+
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final FakeS3Service s3Service = new FakeS3Service(transactionManager);
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong(100);
+    private final AtomicBoolean failSave = new AtomicBoolean();
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(authentication(SELLER_ID, User.UserRole.SELLER));
+
+        productService = new ProductService(productRepository(), s3Service, new SecurityUtils(userRepository()),
+                event -> {
+                }, new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transactionNeverSpansTheImageUpload() {
+        // However long the upload takes, the connection is only taken once it is done
+        ProductResponse created = productService.createProduct(request(), image(5 * 1024 * 1024));
+        productService.updateProduct(created.getId(), new ProductRequest(), image(5 * 1024 * 1024));
+
+        assertThat(s3Service.uploads).hasSize(2);
+        assertThat(s3Service.uploadedInsideTransaction).isFalse();
+        assertThat(transactionManager.events).containsExactly(
+                "upload", "begin", "commit",
+                "upload", "begin", "commit");
+    }
+
+    @Test
+    void failedWriteReleasesTheUploadedImage() {
+        failSave.set(true);
+
+        assertThatThrownBy(() -> productService.createProduct(request(), image(1024)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(s3Service.uploads).hasSize(1);
+        assertThat(s3Service.deleted).containsExactlyElementsOf(s3Service.uploads);
+        assertThat(transactionManager.rollbacks.get()).isEqualTo(1);
+    }
+
+    @Test
+    void replacedImageIsReleasedInsideTheWriteTransaction() {
+        ProductResponse created = productService.createProduct(request(), image(1024));
+
+        productService.updateProduct(created.getId(), new ProductRequest(), image(2048));
+
+        assertThat(s3Service.deleted).containsExactly(created.getImageUrl());
+        assertThat(s3Service.deletedInsideTransaction).isTrue();
+        assertThat(products.get(created.getId()).getImageUrl()).isEqualTo(s3Service.uploads.get(1));
+    }
+
+    @Test
+    void forbiddenUpdateNeverUploads() {
+        ProductResponse created = productService.createProduct(request(), null);
+        SecurityContextHolder.getContext().setAuthentication(authentication(8L, User.UserRole.SELLER));
+
+        assertThatThrownBy(() -> productService.updateProduct(created.getId(), new ProductRequest(), image(1024)))
+                .isInstanceOf(UnauthorizedException.class);
+
+        assertThat(s3Service.uploads).isEmpty();
+    }
+
+    @Test
+    void confirmedUploadIsCheckedInS3OutsideTheWriteTransaction() {
+        ProductResponse created = productService.createProduct(request(), image(1024));
+        String key = "products/uploads/" + created.getId() + "/lamp.jpg";
+
+        ProductResponse confirmed = productService.confirmImageUpload(created.getId(), new ConfirmImageUploadRequest(key));
+
+        assertThat(s3Service.confirmed).containsExactly(key);
+        assertThat(s3Service.confirmedInsideTransaction).isFalse();
+        assertThat(confirmed.getImageUrl()).isEqualTo("https://bucket.s3.amazonaws.com/" + key);
+        assertThat(s3Service.deleted).containsExactly(created.getImageUrl());
+        assertThat(s3Service.deletedInsideTransaction).isTrue();
+    }
+
+    @Test
+    void forbiddenConfirmNeverReachesS3() {
+        ProductResponse created = productService.createProduct(request(), null);
+        SecurityContextHolder.getContext().setAuthentication(authentication(8L, User.UserRole.SELLER));
+
+        assertThatThrownBy(() -> productService.confirmImageUpload(created.getId(),
+                new ConfirmImageUploadRequest("products/uploads/" + created.getId() + "/lamp.jpg")))
+                .isInstanceOf(UnauthorizedException.class);
+
+        assertThat(s3Service.confirmed).isEmpty();
+    }
+
+    private ProductRepository productRepository() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(products.get(invocation.<Long>getArgument(0))));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            if (failSave.get()) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            Product product = invocation.getArgument(0);
+            if (product.getId() == null) {
+                product.setId(ids.incrementAndGet());
+            }
+            products.put(product.getId(), product);
+            return product;
+        });
+        return productRepository;
+    }
+
+    private static UserRepository userRepository() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.getReferenceById(any())).thenAnswer(invocation ->
+                User.builder().id(invocation.getArgument(0)).firstName("Sam").lastName("Seller").build());
+        return userRepository;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(Long userId, User.UserRole role) {
+        CloudmartPrincipal principal = new CloudmartPrincipal(userId, "seller@cloudmart.com", role, User.UserStatus.ACTIVE);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static ProductRequest request() {
+        return ProductRequest.builder()
+                .name("Lamp")
+                .price(new BigDecimal("19.99"))
+                .stock(3)
+                .category("home")
+                .build();
+    }
+
+    private static MultipartFile image(int size) {
+        return new MockMultipartFile("image", "lamp.jpg", "image/jpeg", new byte[size]);
+    }
+
+    /**
+     * Stands in for the connection pool: a transaction is the time a connection is held.
+     */
+    private static class RecordingTransactionManager implements PlatformTransactionManager {
+
+        private final AtomicBoolean active = new AtomicBoolean();
+        private final AtomicLong rollbacks = new AtomicLong();
+        // Transaction boundaries interleaved with the S3 calls made around them
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            active.set(true);
+            events.add("begin");
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            events.add("commit");
+            active.set(false);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks.incrementAndGet();
+            events.add("rollback");
+            active.set(false);
+        }
+    }
+
+    private static class FakeS3Service extends S3Service {
+
+        private final RecordingTransactionManager transactionManager;
+        private final List<String> uploads = new CopyOnWriteArrayList<>();
+        private final List<String> deleted = new CopyOnWriteArrayList<>();
+        private final List<String> confirmed = new CopyOnWriteArrayList<>();
+        private volatile boolean uploadedInsideTransaction;
+        private volatile boolean confirmedInsideTransaction;
+        private volatile boolean deletedInsideTransaction;
+
+        FakeS3Service(RecordingTransactionManager transactionManager) {
+            super(null, null, null, null, null);
+            this.transactionManager = transactionManager;
+        }
+
+        @Override
+        public String uploadProductImage(MultipartFile file) {
+            uploadedInsideTransaction |= transactionManager.active.get();
+            transactionManager.events.add("upload");
+            String url = "https://bucket.s3.amazonaws.com/products/" + uploads.size() + ".jpg";
+            uploads.add(url);
+            return url;
+        }
+
+        @Override
+        public String confirmProductImageUpload(Long productId, String key) {
+            confirmedInsideTransaction |= transactionManager.active.get();
+            confirmed.add(key);
+            return "https://bucket.s3.amazonaws.com/" + key;
+        }
+
+        @Override
+        public void deleteProductImage(String imageUrl) {
+            deletedInsideTransaction |= transactionManager.active.get();
+            deleted.add(imageUrl);
+        }
+    }
+}
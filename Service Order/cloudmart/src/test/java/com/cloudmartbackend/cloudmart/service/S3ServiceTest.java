@@ -0,0 +1,380 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.cloudmartbackend.cloudmart.dto.response.ImageUploadUrlResponse;
+import com.cloudmartbackend.cloudmart.exception.FileUploadException;
+import com.cloudmartbackend.cloudmart.exception.ServiceUnavailableException;
+import com.cloudmartbackend.cloudmart.repository.ImageReferenceStore;
+import com.cloudmartbackend.cloudmart.repository.PendingImageDeletionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3ServiceTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private final FakeS3Client s3 = new FakeS3Client();
+    private ImageReferenceStore references;
+    private PendingImageDeletionStore pendingDeletions;
+    private S3Service service;
+
+    @BeforeEach
+    void setUp() {
+        S3Presigner presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+                .build();
+
+        // H2 in MySQL mode, so the upsert statement is the one used against RDS
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:images;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS image_objects");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS pending_image_deletions");
+        // Same columns as the ImageObject mapping
+        jdbcTemplate.execute("CREATE TABLE image_objects (" +
+                "object_key VARCHAR(512) NOT NULL PRIMARY KEY, " +
+                "ref_count INT NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL, " +
+                "updated_at TIMESTAMP(6) NOT NULL)");
+        references = new ImageReferenceStore(jdbcTemplate);
+        // Same columns as the PendingImageDeletion mapping
+        jdbcTemplate.execute("CREATE TABLE pending_image_deletions (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "object_key VARCHAR(512) NOT NULL, " +
+                "attempts INT NOT NULL, " +
+                "next_attempt_at TIMESTAMP(6) NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_pending_image_deletions_next_attempt ON pending_image_deletions (next_attempt_at)");
+        pendingDeletions = new PendingImageDeletionStore(jdbcTemplate);
+
+        service = new S3Service(s3, presigner, new SimpleMeterRegistry(), references, pendingDeletions);
+        ReflectionTestUtils.setField(service, "bucketName", "bucket");
+        ReflectionTestUtils.setField(service, "productImagesPrefix", "products/");
+        ReflectionTestUtils.setField(service, "allowedExtensions", "jpg,png");
+        ReflectionTestUtils.setField(service, "maxFileSize", 64L * MB);
+        ReflectionTestUtils.setField(service, "multipartThreshold", 16L * MB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void smallFileIsStreamedWithContentLength() {
+        service.init();
+        byte[] content = content(3 * MB);
+
+        String url = service.uploadProductImage(image(content));
+
+        assertThat(url).startsWith("https://bucket.s3.amazonaws.com/products/").endsWith(".jpg");
+        assertThat(s3.putRequests).singleElement().satisfies(request -> {
+            assertThat(request.contentLength()).isEqualTo(content.length);
+            assertThat(request.checksumSHA256()).isNotBlank();
+        });
+        assertThat(s3.objects.values()).singleElement().isEqualTo(content);
+        assertThat(service.getInFlightBytes()).isZero();
+    }
+
+    @Test
+    void largeFileIsUploadedInParallelParts() {
+        service.init();
+        s3.partDelayMillis = 100;
+        byte[] content = content(20 * MB);
+
+        service.uploadProductImage(image(content));
+
+        // 8 + 8 + 4 MiB
+        assertThat(s3.partNumbers).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(s3.maxConcurrentParts.get()).isGreaterThan(1);
+        assertThat(s3.completedParts).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3);
+        assertThat(s3.partBytes.get()).isEqualTo(content.length);
+        assertThat(service.getInFlightBytes()).isZero();
+    }
+
+    @Test
+    void failedPartAbortsUpload() {
+        service.init();
+        s3.failPart = 2;
+
+        assertThatThrownBy(() -> service.uploadProductImage(image(content(20 * MB))))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(s3.aborted.get()).isEqualTo(1);
+        assertThat(s3.completedParts).isEmpty();
+        assertThat(service.getInFlightBytes()).isZero();
+    }
+
+    @Test
+    void uploadsBeyondTheBudgetAreRejected() throws Exception {
+        // Smallest budget possible: one part
+        ReflectionTestUtils.setField(service, "inflightBudgetBytes", 1L);
+        ReflectionTestUtils.setField(service, "budgetTimeoutMs", 50L);
+        service.init();
+
+        s3.blockPuts = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> first = executor.submit(() -> service.uploadProductImage(image(content(7 * MB))));
+        while (service.getInFlightBytes() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> service.uploadProductImage(image(content(7 * MB))))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        s3.blockPuts.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNotNull();
+        executor.shutdown();
+
+        assertThat(service.getInFlightBytes()).isZero();
+    }
+
+    @Test
+    void identicalContentIsStoredOnceAndDeletedWithItsLastReference() {
+        service.init();
+        byte[] content = content(MB);
+
+        String first = service.uploadProductImage(image(content));
+        String second = service.uploadProductImage(image(content));
+        String other = service.uploadProductImage(image(content(2 * MB)));
+
+        // Key is the SHA-256 of the content
+        assertThat(first).isEqualTo(second)
+                .matches("https://bucket\\.s3\\.amazonaws\\.com/products/[0-9a-f]{64}\\.jpg");
+        assertThat(other).isNotEqualTo(first);
+        assertThat(s3.putRequests).hasSize(2);
+
+        String key = first.substring("https://bucket.s3.amazonaws.com/".length());
+        assertThat(references.getReferenceCount(key)).isEqualTo(2);
+
+        service.deleteProductImage(first);
+        assertThat(pendingDeletions.findAllKeys()).isEmpty();
+
+        // Queued, not deleted inline
+        service.deleteProductImage(second);
+        assertThat(pendingDeletions.findAllKeys()).containsExactly(key);
+        assertThat(references.getReferenceCount(key)).isZero();
+        assertThat(s3.deletedKeys).isEmpty();
+    }
+
+    @Test
+    void failedUploadDropsItsReference() {
+        service.init();
+        s3.failPart = 1;
+
+        assertThatThrownBy(() -> service.uploadProductImage(image(content(20 * MB))))
+                .isInstanceOf(IllegalStateException.class);
+
+        s3.failPart = 0;
+        String url = service.uploadProductImage(image(content(20 * MB)));
+        assertThat(references.getReferenceCount(url.substring("https://bucket.s3.amazonaws.com/".length())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void presignedUploadSignsContentTypeAndLength() {
+        service.init();
+
+        ImageUploadUrlResponse upload = service.presignProductImageUpload(7L, "photo.PNG", "image/png", 1024);
+
+        assertThat(upload.getKey()).startsWith("products/7/").endsWith(".png");
+        assertThat(upload.getMethod()).isEqualTo("PUT");
+        assertThat(upload.getUploadUrl()).contains("X-Amz-Signature=").contains("content-length").contains("content-type");
+        assertThat(upload.getHeaders().keySet()).extracting(String::toLowerCase)
+                .containsExactlyInAnyOrder("content-type", "content-length");
+        assertThat(upload.getHeaders().values()).contains("image/png", "1024");
+
+        assertThatThrownBy(() -> service.presignProductImageUpload(7L, "photo.png", "image/jpeg", 1024))
+                .isInstanceOf(FileUploadException.class);
+        assertThatThrownBy(() -> service.presignProductImageUpload(7L, "photo.gif", "image/gif", 1024))
+                .isInstanceOf(FileUploadException.class);
+        assertThatThrownBy(() -> service.presignProductImageUpload(7L, "photo.png", "image/png", 65L * MB))
+                .isInstanceOf(FileUploadException.class);
+    }
+
+    @Test
+    void confirmChecksTheUploadedObject() {
+        service.init();
+        s3.heads.put("products/7/ok.png", HeadObjectResponse.builder().contentLength(1024L).contentType("image/png").build());
+        s3.heads.put("products/7/wrong.png", HeadObjectResponse.builder().contentLength(1024L).contentType("text/html").build());
+
+        assertThat(service.confirmProductImageUpload(7L, "products/7/ok.png"))
+                .isEqualTo("https://bucket.s3.amazonaws.com/products/7/ok.png");
+
+        assertThatThrownBy(() -> service.confirmProductImageUpload(7L, "products/7/missing.png"))
+                .isInstanceOf(FileUploadException.class);
+        assertThatThrownBy(() -> service.confirmProductImageUpload(8L, "products/7/ok.png"))
+                .isInstanceOf(FileUploadException.class);
+        assertThatThrownBy(() -> service.confirmProductImageUpload(7L, "products/7/wrong.png"))
+                .isInstanceOf(FileUploadException.class);
+        assertThat(pendingDeletions.findAllKeys()).containsExactly("products/7/wrong.png");
+    }
+
+    private static MockMultipartFile image(byte[] content) {
+        return new MockMultipartFile("image", "photo.jpg", "image/jpeg", content);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    /**
+     * Local S3 stand-in that records requests and reads every body through its stream.
+     */
+    private static class FakeS3Client implements S3Client {
+
+        private final List<PutObjectRequest> putRequests = new CopyOnWriteArrayList<>();
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final List<Integer> partNumbers = new CopyOnWriteArrayList<>();
+        private final AtomicInteger partBytes = new AtomicInteger();
+        private final AtomicInteger activeParts = new AtomicInteger();
+        private final AtomicInteger maxConcurrentParts = new AtomicInteger();
+        private final AtomicInteger aborted = new AtomicInteger();
+        private final Map<String, HeadObjectResponse> heads = new ConcurrentHashMap<>();
+        private final List<String> deletedKeys = new CopyOnWriteArrayList<>();
+        private volatile List<CompletedPart> completedParts = List.of();
+        private volatile long partDelayMillis;
+        private volatile int failPart;
+        private volatile CountDownLatch blockPuts;
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            putRequests.add(request);
+            if (blockPuts != null) {
+                try {
+                    blockPuts.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            objects.put(request.key(), read(body));
+            return PutObjectResponse.builder().eTag("etag").build();
+        }
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            HeadObjectResponse head = heads.get(request.key());
+            byte[] object = objects.get(request.key());
+            if (head == null && object != null) {
+                head = HeadObjectResponse.builder().contentLength((long) object.length).build();
+            }
+            if (head == null) {
+                throw NoSuchKeyException.builder().message("Not Found").build();
+            }
+            return head;
+        }
+
+        @Override
+        public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+            deletedKeys.add(request.key());
+            objects.remove(request.key());
+            return DeleteObjectResponse.builder().build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            return CreateMultipartUploadResponse.builder().uploadId("upload-1").build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            int active = activeParts.incrementAndGet();
+            maxConcurrentParts.accumulateAndGet(active, Math::max);
+            try {
+                if (partDelayMillis > 0) {
+                    Thread.sleep(partDelayMillis);
+                }
+                if (request.partNumber() == failPart) {
+                    throw new IllegalStateException("Part upload failed");
+                }
+                partNumbers.add(request.partNumber());
+                partBytes.addAndGet(read(body).length);
+                return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                activeParts.decrementAndGet();
+            }
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            completedParts = request.multipartUpload().parts();
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            aborted.incrementAndGet();
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static byte[] read(RequestBody body) {
+            try (InputStream inputStream = body.contentStreamProvider().newStream()) {
+                byte[] bytes = inputStream.readAllBytes();
+                assertThat((long) bytes.length).isEqualTo(body.optionalContentLength().orElseThrow());
+                return bytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
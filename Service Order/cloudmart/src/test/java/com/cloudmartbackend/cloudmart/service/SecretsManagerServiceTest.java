@@ -0,0 +1,147 @@
+package com.cloudmartbackend.cloudmart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretResponse;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecretsManagerServiceTest {
+
+    private static final String DB_SECRET = "cloudmart/db/credentials";
+
+    private final FakeSecretsManagerClient secretsManager = new FakeSecretsManagerClient();
+    private final List<Object> events = new ArrayList<>();
+
+    private SecretsManagerService service;
+
+    @BeforeEach
+    void setUp() {
+        secretsManager.rotate("v1", credentials("s3cret-1"));
+
+        service = new SecretsManagerService(secretsManager, new ObjectMapper(), events::add);
+        ReflectionTestUtils.setField(service, "secretsEnabled", true);
+        ReflectionTestUtils.setField(service, "dbSecretName", DB_SECRET);
+    }
+
+    @Test
+    void readsAreServedFromCache() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.getDatabaseCredentials()).containsEntry("password", "s3cret-1");
+        }
+
+        assertThat(secretsManager.getValueCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshWithoutRotationOnlyDescribes() {
+        service.getSecret(DB_SECRET);
+
+        service.refreshSecrets();
+        service.refreshSecrets();
+
+        assertThat(secretsManager.describeCalls.get()).isEqualTo(2);
+        assertThat(secretsManager.getValueCalls.get()).isEqualTo(1);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void rotationIsPickedUpAndPublished() {
+        service.getSecret(DB_SECRET);
+
+        secretsManager.rotate("v2", credentials("s3cret-2"));
+        service.refreshSecrets();
+
+        assertThat(service.getDatabaseCredentials()).containsEntry("password", "s3cret-2");
+        assertThat(secretsManager.getValueCalls.get()).isEqualTo(2);
+        assertThat(events).singleElement()
+                .isInstanceOfSatisfying(SecretRotatedEvent.class, event -> {
+                    assertThat(event.getSecretName()).isEqualTo(DB_SECRET);
+                    assertThat(event.getVersionId()).isEqualTo("v2");
+                });
+    }
+
+    @Test
+    void failedRefreshKeepsCachedSecret() {
+        service.getSecret(DB_SECRET);
+
+        secretsManager.failing = true;
+        service.refreshSecrets();
+
+        assertThat(service.getDatabaseCredentials()).containsEntry("password", "s3cret-1");
+        assertThat(events).isEmpty();
+    }
+
+    private static String credentials(String password) {
+        return "{\"username\":\"cloudmart\",\"password\":\"" + password + "\","
+                + "\"host\":\"localhost\",\"port\":\"3306\",\"database\":\"cloudmart\"}";
+    }
+
+    /**
+     * Local Secrets Manager stand-in holding one secret whose AWSCURRENT version can be moved.
+     */
+    private static class FakeSecretsManagerClient implements SecretsManagerClient {
+
+        private final AtomicInteger getValueCalls = new AtomicInteger();
+        private final AtomicInteger describeCalls = new AtomicInteger();
+        private volatile String currentVersion;
+        private volatile String currentValue;
+        private volatile String previousVersion;
+        private volatile boolean failing;
+
+        void rotate(String versionId, String value) {
+            previousVersion = currentVersion;
+            currentVersion = versionId;
+            currentValue = value;
+        }
+
+        @Override
+        public GetSecretValueResponse getSecretValue(GetSecretValueRequest request) {
+            getValueCalls.incrementAndGet();
+            assertThat(request.versionStage()).isEqualTo("AWSCURRENT");
+            return GetSecretValueResponse.builder()
+                    .name(request.secretId())
+                    .versionId(currentVersion)
+                    .secretString(currentValue)
+                    .build();
+        }
+
+        @Override
+        public DescribeSecretResponse describeSecret(DescribeSecretRequest request) {
+            describeCalls.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("Secrets Manager unavailable");
+            }
+
+            DescribeSecretResponse.Builder response = DescribeSecretResponse.builder().name(request.secretId());
+            if (previousVersion != null) {
+                response.versionIdsToStages(Map.of(
+                        previousVersion, List.of("AWSPREVIOUS"),
+                        currentVersion, List.of("AWSCURRENT")));
+            } else {
+                response.versionIdsToStages(Map.of(currentVersion, List.of("AWSCURRENT")));
+            }
+            return response.build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "secretsmanager";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
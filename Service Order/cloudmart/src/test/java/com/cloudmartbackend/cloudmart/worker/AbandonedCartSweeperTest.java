@@ -0,0 +1,187 @@
+package com.cloudmartbackend.cloudmart.worker;
+
+import com.cloudmartbackend.cloudmart.domain.entity.Cart;
+import com.cloudmartbackend.cloudmart.repository.InMemoryCartStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AbandonedCartSweeperTest {
+
+    private static final Duration TTL = Duration.ofDays(30);
+
+    private final FakeDynamoDbClient dynamoDb = new FakeDynamoDbClient();
+    private AbandonedCartSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new AbandonedCartSweeper(dynamoDb);
+        ReflectionTestUtils.setField(sweeper, "tableName", "cloudmart-cart");
+        ReflectionTestUtils.setField(sweeper, "cartTtlDays", TTL.toDays());
+        ReflectionTestUtils.setField(sweeper, "sweeperEnabled", true);
+        ReflectionTestUtils.setField(sweeper, "segments", 1);
+        ReflectionTestUtils.setField(sweeper, "pageSize", 100);
+        ReflectionTestUtils.setField(sweeper, "maxCapacityUnitsPerSecond", 0.0);
+    }
+
+    @Test
+    void onlyRunsWithTheDynamoDbCartStore() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(DynamoDbClient.class, () -> dynamoDb)
+                .withPropertyValues("aws.dynamodb.table-name=cloudmart-cart")
+                .withUserConfiguration(AbandonedCartSweeper.class);
+
+        runner.run(context -> assertThat(context).hasSingleBean(AbandonedCartSweeper.class));
+        runner.withPropertyValues("app.cart.store=dynamodb")
+                .run(context -> assertThat(context).hasSingleBean(AbandonedCartSweeper.class));
+        runner.withPropertyValues("app.cart.store=memory")
+                .run(context -> assertThat(context).doesNotHaveBean(AbandonedCartSweeper.class));
+        runner.withPropertyValues("app.cart.store=jdbc")
+                .run(context -> assertThat(context).doesNotHaveBean(AbandonedCartSweeper.class));
+    }
+
+    @Test
+    void expiryIsComputedFromLastUpdate() {
+        Instant updatedAt = Instant.now().minus(Duration.ofDays(10));
+        Cart cart = Cart.builder().userId("1").updatedAt(updatedAt).build();
+
+        cart.refreshExpiry(TTL);
+
+        assertThat(cart.getExpiresAt()).isEqualTo(updatedAt.plus(TTL).getEpochSecond());
+    }
+
+    @Test
+    void inMemoryStoreTreatsCartsPastTheirExpiryAsAbsent() {
+        InMemoryCartStore store = new InMemoryCartStore();
+
+        Cart stale = Cart.builder().userId("1").updatedAt(Instant.now().minus(Duration.ofDays(31))).build();
+        stale.refreshExpiry(TTL);
+        store.save(stale);
+
+        Cart recent = Cart.builder().userId("2").updatedAt(Instant.now().minus(Duration.ofDays(29))).build();
+        recent.refreshExpiry(TTL);
+        store.save(recent);
+
+        assertThat(store.load("1")).isNull();
+        assertThat(store.load("2")).isNotNull();
+    }
+
+    @Test
+    void deletesOnlyExpiredCartsAndCartsWithoutExpiryThatAreTooOld() {
+        Instant now = Instant.now();
+        dynamoDb.put("expired", now.minus(Duration.ofDays(31)), now.minus(Duration.ofDays(1)).getEpochSecond());
+        dynamoDb.put("active", now.minus(Duration.ofDays(1)), now.plus(Duration.ofDays(29)).getEpochSecond());
+        dynamoDb.put("legacy-old", now.minus(Duration.ofDays(40)), null);
+        dynamoDb.put("legacy-recent", now.minus(Duration.ofDays(5)), null);
+
+        sweeper.sweepAbandonedCarts();
+
+        assertThat(dynamoDb.items).containsOnlyKeys("active", "legacy-recent");
+        // Carts written before expiresAt existed get it backfilled from updatedAt
+        assertThat(dynamoDb.items.get("legacy-recent").get("expiresAt").n())
+                .isEqualTo(Long.toString(now.minus(Duration.ofDays(5)).plus(TTL).getEpochSecond()));
+    }
+
+    @Test
+    void keepsCartRefreshedBetweenScanAndDelete() {
+        Instant now = Instant.now();
+        dynamoDb.put("refreshed", now.minus(Duration.ofDays(31)), now.minus(Duration.ofDays(1)).getEpochSecond());
+        dynamoDb.put("expired", now.minus(Duration.ofDays(31)), now.minus(Duration.ofDays(1)).getEpochSecond());
+
+        // The user touches the cart after the scan has read it
+        dynamoDb.afterScan = () -> dynamoDb.put("refreshed", now, now.plus(TTL).getEpochSecond());
+
+        sweeper.sweepAbandonedCarts();
+
+        assertThat(dynamoDb.items).containsOnlyKeys("refreshed");
+    }
+
+    /**
+     * Cart table held in a map. Scan and the conditional writes evaluate the sweeper's expressions in Java.
+     */
+    private static class FakeDynamoDbClient implements DynamoDbClient {
+
+        private final Map<String, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+        private Runnable afterScan = () -> {
+        };
+
+        void put(String userId, Instant updatedAt, Long expiresAt) {
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("userId", AttributeValue.builder().s(userId).build());
+            item.put("updatedAt", AttributeValue.builder().s(updatedAt.toString()).build());
+            if (expiresAt != null) {
+                item.put("expiresAt", AttributeValue.builder().n(expiresAt.toString()).build());
+            }
+            items.put(userId, item);
+        }
+
+        @Override
+        public ScanResponse scan(ScanRequest request) {
+            long now = Long.parseLong(request.expressionAttributeValues().get(":now").n());
+            List<Map<String, AttributeValue>> matched = new ArrayList<>();
+            for (Map<String, AttributeValue> item : items.values()) {
+                if (expiredOrMissing(item, now)) {
+                    matched.add(new HashMap<>(item));
+                }
+            }
+            afterScan.run();
+            return ScanResponse.builder().items(matched).count(matched.size()).scannedCount(items.size()).build();
+        }
+
+        @Override
+        public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+            String userId = request.key().get("userId").s();
+            long now = Long.parseLong(request.expressionAttributeValues().get(":now").n());
+            Map<String, AttributeValue> item = items.get(userId);
+            if (item != null && !expiredOrMissing(item, now)) {
+                throw ConditionalCheckFailedException.builder().message("The conditional request failed").build();
+            }
+            items.remove(userId);
+            return DeleteItemResponse.builder().build();
+        }
+
+        @Override
+        public UpdateItemResponse updateItem(UpdateItemRequest request) {
+            Map<String, AttributeValue> item = items.get(request.key().get("userId").s());
+            if (item == null || item.containsKey("expiresAt")) {
+                throw ConditionalCheckFailedException.builder().message("The conditional request failed").build();
+            }
+            item.put("expiresAt", request.expressionAttributeValues().get(":exp"));
+            return UpdateItemResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        // attribute_not_exists(#exp) OR #exp < :now
+        private static boolean expiredOrMissing(Map<String, AttributeValue> item, long now) {
+            return !item.containsKey("expiresAt") || Long.parseLong(item.get("expiresAt").n()) < now;
+        }
+    }
+}
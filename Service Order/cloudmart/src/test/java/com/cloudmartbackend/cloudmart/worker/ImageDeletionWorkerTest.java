@@ -0,0 +1,211 @@
+package com.cloudmartbackend.cloudmart.worker;
+
+import com.cloudmartbackend.cloudmart.repository.ImageReferenceStore;
+import com.cloudmartbackend.cloudmart.repository.PendingImageDeletionStore;
+import com.cloudmartbackend.cloudmart.repository.ProductRepository;
+import com.cloudmartbackend.cloudmart.service.S3Service;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageDeletionWorkerTest {
+
+    private final FakeS3Client s3 = new FakeS3Client();
+    private final List<Object[]> productImageUrls = new ArrayList<>();
+
+    private ImageReferenceStore references;
+    private PendingImageDeletionStore pendingDeletions;
+    private S3Service s3Service;
+    private ImageDeletionWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:image-deletions;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS image_objects");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS pending_image_deletions");
+
+        // Same columns as the ImageObject mapping
+        jdbcTemplate.execute("CREATE TABLE image_objects (" +
+                "object_key VARCHAR(512) NOT NULL PRIMARY KEY, " +
+                "ref_count INT NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL, " +
+                "updated_at TIMESTAMP(6) NOT NULL)");
+        references = new ImageReferenceStore(jdbcTemplate);
+        // Same columns as the PendingImageDeletion mapping
+        jdbcTemplate.execute("CREATE TABLE pending_image_deletions (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "object_key VARCHAR(512) NOT NULL, " +
+                "attempts INT NOT NULL, " +
+                "next_attempt_at TIMESTAMP(6) NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_pending_image_deletions_next_attempt ON pending_image_deletions (next_attempt_at)");
+        pendingDeletions = new PendingImageDeletionStore(jdbcTemplate);
+
+        S3Presigner presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+                .build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        s3Service = new S3Service(s3, presigner, registry, references, pendingDeletions);
+        ReflectionTestUtils.setField(s3Service, "bucketName", "bucket");
+        ReflectionTestUtils.setField(s3Service, "productImagesPrefix", "products/");
+        s3Service.init();
+
+        worker = new ImageDeletionWorker(pendingDeletions, references, productRepository(), s3Service,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), registry);
+        worker.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Service.shutdown();
+    }
+
+    @Test
+    void deletesQueuedKeysInBatchesOfAtMost1000() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            keys.add("products/" + i + ".jpg");
+        }
+        pendingDeletions.enqueueAll(keys);
+
+        worker.processPending();
+
+        assertThat(s3.deleteBatchSizes).containsExactly(1000, 1000, 500);
+        assertThat(s3.deleted).containsExactlyInAnyOrderElementsOf(keys);
+        assertThat(pendingDeletions.count()).isZero();
+    }
+
+    @Test
+    void keysReferencedAgainAreNotDeleted() {
+        references.acquire("products/shared.jpg");
+        s3Service.deleteProductImage("https://bucket.s3.amazonaws.com/products/shared.jpg");
+        // Same content uploaded again before the worker ran
+        references.acquire("products/shared.jpg");
+
+        references.acquire("products/gone.jpg");
+        s3Service.deleteProductImage("https://bucket.s3.amazonaws.com/products/gone.jpg");
+
+        worker.processPending();
+
+        assertThat(s3.deleted).containsExactly("products/gone.jpg");
+        assertThat(references.getReferenceCount("products/shared.jpg")).isEqualTo(1);
+        assertThat(pendingDeletions.count()).isZero();
+    }
+
+    @Test
+    void failedKeysAreRetriedLater() {
+        s3.failing.add("products/locked.jpg");
+        pendingDeletions.enqueueAll(List.of("products/locked.jpg", "products/ok.jpg"));
+
+        worker.processPending();
+
+        assertThat(s3.deleted).containsExactly("products/ok.jpg");
+        assertThat(pendingDeletions.findAllKeys()).containsExactly("products/locked.jpg");
+        // Backed off, so not due again right away
+        assertThat(pendingDeletions.findDue(10)).isEmpty();
+    }
+
+    @Test
+    void reconciliationQueuesOldUnreferencedObjects() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        s3.listed.add(object("products/used.jpg", old));
+        s3.listed.add(object("products/used-thumbnail.jpg", old));
+        s3.listed.add(object("products/counted.jpg", old));
+        s3.listed.add(object("products/orphan.jpg", old));
+        s3.listed.add(object("products/7/fresh-upload.png", Instant.now()));
+
+        productImageUrls.add(new Object[]{"https://bucket.s3.amazonaws.com/products/used.jpg",
+                "https://bucket.s3.amazonaws.com/products/used-thumbnail.jpg", null, null});
+        references.acquire("products/counted.jpg");
+
+        worker.reconcile();
+
+        assertThat(pendingDeletions.findAllKeys()).containsExactly("products/orphan.jpg");
+    }
+
+    private ProductRepository productRepository() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllImageUrls()).thenReturn(productImageUrls);
+        return productRepository;
+    }
+
+    private static S3Object object(String key, Instant lastModified) {
+        return S3Object.builder().key(key).lastModified(lastModified).build();
+    }
+
+    private static class FakeS3Client implements S3Client {
+
+        private final List<String> deleted = new CopyOnWriteArrayList<>();
+        private final List<Integer> deleteBatchSizes = new CopyOnWriteArrayList<>();
+        private final Set<String> failing = ConcurrentHashMap.newKeySet();
+        private final List<S3Object> listed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest request) {
+            List<S3Error> errors = new ArrayList<>();
+            deleteBatchSizes.add(request.delete().objects().size());
+            for (ObjectIdentifier object : request.delete().objects()) {
+                if (failing.contains(object.key())) {
+                    errors.add(S3Error.builder().key(object.key()).code("AccessDenied").build());
+                } else {
+                    deleted.add(object.key());
+                }
+            }
+            return DeleteObjectsResponse.builder().errors(errors).build();
+        }
+
+        @Override
+        public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+            return ListObjectsV2Response.builder().contents(listed).isTruncated(false).build();
+        }
+
+        @Override
+        public ListObjectsV2Iterable listObjectsV2Paginator(ListObjectsV2Request request) {
+            return new ListObjectsV2Iterable(this, request);
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.cloudmartbackend.cloudmart.worker;
+
+import com.cloudmartbackend.cloudmart.config.MessageTracing;
+import com.cloudmartbackend.cloudmart.domain.entity.Order;
+import com.cloudmartbackend.cloudmart.domain.entity.User;
+import com.cloudmartbackend.cloudmart.repository.OrderRepository;
+import com.cloudmartbackend.cloudmart.service.SnsService;
+import com.cloudmartbackend.cloudmart.service.SqsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderPipelineTracingTest {
+
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/cloudmart-orders";
+    private static final String TOPIC_ARN = "arn:aws:sns:us-east-1:123456789012:cloudmart-order-notifications";
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final FakeSqsClient sqs = new FakeSqsClient();
+    private final FakeSnsClient sns = new FakeSnsClient();
+
+    private OpenTelemetrySdk openTelemetry;
+    private SqsService sqsService;
+    private SqsOrderConsumer consumer;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        MessageTracing messageTracing = new MessageTracing(openTelemetry);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        order = Order.builder()
+                .id(7L)
+                .orderNumber("ORD-7")
+                .user(User.builder().id(3L).build())
+                .total(new BigDecimal("42.50"))
+                .status(Order.OrderStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        sqsService = new SqsService(sqs, objectMapper, messageTracing);
+        ReflectionTestUtils.setField(sqsService, "orderQueueUrl", QUEUE_URL);
+
+        SnsService snsService = new SnsService(sns, registry, messageTracing);
+        ReflectionTestUtils.setField(snsService, "orderTopicArn", TOPIC_ARN);
+
+        consumer = new SqsOrderConsumer(sqs, orderRepository(), snsService, objectMapper, registry, messageTracing);
+        ReflectionTestUtils.setField(consumer, "orderQueueUrl", QUEUE_URL);
+        ReflectionTestUtils.setField(consumer, "consumerEnabled", true);
+        ReflectionTestUtils.setField(consumer, "maxMessages", 5);
+        consumer.initMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        openTelemetry.close();
+    }
+
+    @Test
+    void orderIsOneTraceFromRequestThroughQueueToNotifications() throws Exception {
+        Span request = openTelemetry.getTracer("test").spanBuilder("POST /api/orders")
+                .setSpanKind(SpanKind.SERVER)
+                .startSpan();
+        try (Scope ignored = request.makeCurrent()) {
+            sqsService.sendOrderMessage(order);
+        } finally {
+            request.end();
+        }
+
+        assertThat(sqs.queue).singleElement()
+                .satisfies(message -> assertThat(message.messageAttributes()).containsKey("traceparent"));
+
+        Thread.sleep(50);
+        consumer.consumeOrderMessages();
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        SpanData http = span(spans, "POST /api/orders");
+        SpanData send = span(spans, "cloudmart-orders send");
+        SpanData queued = span(spans, "cloudmart-orders queued");
+        SpanData process = span(spans, "cloudmart-orders process");
+        SpanData payment = span(spans, "payment");
+        List<SpanData> publishes = spans.stream()
+                .filter(span -> span.getName().equals("cloudmart-order-notifications publish"))
+                .toList();
+
+        assertThat(spans).allSatisfy(span -> assertThat(span.getTraceId()).isEqualTo(http.getTraceId()));
+
+        assertThat(send.getKind()).isEqualTo(SpanKind.PRODUCER);
+        assertThat(send.getParentSpanId()).isEqualTo(http.getSpanId());
+
+        // Queue wait and processing are separate children of the producer span
+        assertThat(queued.getParentSpanId()).isEqualTo(send.getSpanId());
+        assertThat(queued.getEndEpochNanos() - queued.getStartEpochNanos())
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(process.getKind()).isEqualTo(SpanKind.CONSUMER);
+        assertThat(process.getParentSpanId()).isEqualTo(send.getSpanId());
+        assertThat(process.getStartEpochNanos()).isGreaterThanOrEqualTo(queued.getEndEpochNanos());
+
+        assertThat(payment.getParentSpanId()).isEqualTo(process.getSpanId());
+
+        // Status update, plus the confirmation when the simulated payment succeeds
+        assertThat(publishes).isNotEmpty()
+                .allSatisfy(publish -> assertThat(publish.getParentSpanId()).isEqualTo(process.getSpanId()));
+        assertThat(sns.published).hasSameSizeAs(publishes)
+                .allSatisfy(published -> assertThat(published.messageAttributes()).containsKey("traceparent"));
+
+        assertThat(sqs.queue).isEmpty();
+    }
+
+    @Test
+    void orderSentOutsideARequestStartsItsOwnTrace() {
+        sqsService.sendOrderMessage(order);
+
+        assertThat(sqs.queue).singleElement()
+                .satisfies(message -> assertThat(message.messageAttributes()).containsKey("traceparent"));
+
+        SpanData send = span(exporter.getFinishedSpanItems(), "cloudmart-orders send");
+        assertThat(send.getParentSpanContext().isValid()).isFalse();
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span named " + name + " in " + spans));
+    }
+
+    private OrderRepository orderRepository() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findById(any())).thenAnswer(invocation -> Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        return orderRepository;
+    }
+
+    /**
+     * Single queue that stamps SentTimestamp and only returns the message attributes asked for.
+     */
+    private static class FakeSqsClient implements SqsClient {
+
+        private final List<Message> queue = new CopyOnWriteArrayList<>();
+
+        @Override
+        public SendMessageResponse sendMessage(SendMessageRequest request) {
+            String messageId = UUID.randomUUID().toString();
+            queue.add(Message.builder()
+                    .messageId(messageId)
+                    .receiptHandle(messageId)
+                    .body(request.messageBody())
+                    .messageAttributes(request.messageAttributes())
+                    .attributes(Map.of(MessageSystemAttributeName.SENT_TIMESTAMP,
+                            String.valueOf(System.currentTimeMillis())))
+                    .build());
+            return SendMessageResponse.builder().messageId(messageId).build();
+        }
+
+        @Override
+        public ReceiveMessageResponse receiveMessage(ReceiveMessageRequest request) {
+            List<Message> received = new ArrayList<>();
+            for (Message message : queue) {
+                Map<String, MessageAttributeValue> attributes = new HashMap<>(message.messageAttributes());
+                attributes.keySet().retainAll(request.messageAttributeNames());
+                Map<MessageSystemAttributeName, String> systemAttributes = new HashMap<>(message.attributes());
+                systemAttributes.keySet().removeIf(name -> !request.attributeNamesAsStrings().contains(name.toString()));
+
+                received.add(message.toBuilder()
+                        .messageAttributes(attributes)
+                        .attributes(systemAttributes)
+                        .build());
+            }
+            return ReceiveMessageResponse.builder().messages(received).build();
+        }
+
+        @Override
+        public DeleteMessageResponse deleteMessage(DeleteMessageRequest request) {
+            queue.removeIf(message -> message.receiptHandle().equals(request.receiptHandle()));
+            return DeleteMessageResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "sqs";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class FakeSnsClient implements SnsClient {
+
+        private final List<PublishRequest> published = new CopyOnWriteArrayList<>();
+
+        @Override
+        public PublishResponse publish(PublishRequest request) {
+            published.add(request);
+            return PublishResponse.builder().messageId(UUID.randomUUID().toString()).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "sns";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
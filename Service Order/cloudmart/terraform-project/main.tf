@@ -263,6 +263,11 @@ resource "aws_dynamodb_table" "cart" {
     type = "S"
   }
 
+  ttl {
+    attribute_name = "expiresAt"
+    enabled        = true
+  }
+
   tags = {
     Name = "${var.project_name}-cart"
   }